@@ -0,0 +1,89 @@
+package org.ftibw.mongo.modelgen.benchmark;
+
+import com.sun.source.util.JavacTask;
+import org.ftibw.mongo.modelgen.MongoModelEntityProcessor;
+
+import javax.tools.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 通过{@link JavaCompiler}在当前进程内编译源码并运行{@link MongoModelEntityProcessor}
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 15:35
+ */
+final class InMemoryCompiler {
+
+    private final JavaCompiler compiler;
+    private final List<JavaFileObject> sources;
+
+    InMemoryCompiler(Map<String, String> sources) {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("no system java compiler, the benchmarks have to run on a JDK");
+        }
+        List<JavaFileObject> fileObjects = new ArrayList<>(sources.size());
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            fileObjects.add(InMemoryFileManager.source(source.getKey(), source.getValue()));
+        }
+        this.sources = Collections.unmodifiableList(fileObjects);
+    }
+
+    /**
+     * @param proc        javac的-proc选项：full（处理并编译）、only（只做注解处理）、none（不运行注解处理器）
+     * @param parallelism 注解处理器的渲染并行度
+     * @param timer       统计javac各阶段耗时，可为null
+     * @return 生成的源码数量
+     */
+    int compile(String proc, int parallelism, PhaseTimer timer) {
+        List<String> options = new ArrayList<>();
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        options.add("-nowarn");
+        options.add("-Aparallelism=" + parallelism);
+        if (!"full".equals(proc)) {
+            options.add("-proc:" + proc);
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(
+                diagnostics, Locale.ROOT, StandardCharsets.UTF_8
+        );
+        InMemoryFileManager fileManager = new InMemoryFileManager(standardFileManager);
+        JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+        task.setProcessors(Collections.singletonList(new MongoModelEntityProcessor()));
+        if (timer != null) {
+            task.addTaskListener(timer);
+        }
+
+        boolean success = task.call();
+        if (timer != null) {
+            timer.compilationFinished();
+        }
+        if (!success) {
+            throw new IllegalStateException("compilation failed: " + firstErrors(diagnostics));
+        }
+        return fileManager.countGeneratedSources();
+    }
+
+    private static String firstErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder sb = new StringBuilder();
+        int count = 0;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+                continue;
+            }
+            if (count++ == 5) {
+                sb.append("\n...");
+                break;
+            }
+            sb.append('\n').append(diagnostic);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package org.ftibw.mongo.modelgen.benchmark;
+
+import javax.tools.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 所有输出（生成的源码、资源和class文件）都保存在内存中，压测过程不读写磁盘
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 15:05
+ */
+final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<String, MemoryFileObject> outputs = new LinkedHashMap<>();
+
+    InMemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    static JavaFileObject source(String qualifiedName, String content) {
+        return new MemoryFileObject(uri(StandardLocation.SOURCE_PATH, qualifiedName.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE, content);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                               FileObject sibling) {
+        return output(uri(location, className.replace('.', '/') + kind.extension), kind);
+    }
+
+    @Override
+    public FileObject getFileForOutput(Location location, String packageName, String relativeName,
+                                       FileObject sibling) {
+        String path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+        return output(uri(location, path), JavaFileObject.Kind.OTHER);
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        if (a instanceof MemoryFileObject || b instanceof MemoryFileObject) {
+            return a.toUri().equals(b.toUri());
+        }
+        return super.isSameFile(a, b);
+    }
+
+    /**
+     * @return 本次编译生成的源码数量
+     */
+    int countGeneratedSources() {
+        int count = 0;
+        for (MemoryFileObject output : outputs.values()) {
+            if (output.getKind() == JavaFileObject.Kind.SOURCE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private MemoryFileObject output(URI uri, JavaFileObject.Kind kind) {
+        MemoryFileObject output = new MemoryFileObject(uri, kind, null);
+        outputs.put(uri.toString(), output);
+        return output;
+    }
+
+    private static URI uri(Location location, String path) {
+        return URI.create("mem:///" + location.getName() + "/" + path);
+    }
+
+    private static final class MemoryFileObject extends SimpleJavaFileObject {
+        private final String source;
+        private ByteArrayOutputStream content;
+
+        MemoryFileObject(URI uri, Kind kind, String source) {
+            super(uri, kind);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            if (source != null) {
+                return source;
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(source != null
+                    ? source.getBytes(StandardCharsets.UTF_8) : content.toByteArray());
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            content = new ByteArrayOutputStream();
+            return content;
+        }
+
+        @Override
+        public Writer openWriter() {
+            return new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8);
+        }
+    }
+}
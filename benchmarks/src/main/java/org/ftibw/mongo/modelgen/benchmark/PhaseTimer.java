@@ -0,0 +1,54 @@
+package org.ftibw.mongo.modelgen.benchmark;
+
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 累计javac各阶段的耗时
+ * <p>
+ * 同一阶段的事件可能嵌套（如注解处理期间解析生成的源码），只统计最外层；
+ * 不同阶段之间会重叠，ANNOTATION_PROCESSING包含了生成源码的PARSE和ENTER
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 15:20
+ */
+final class PhaseTimer implements TaskListener {
+
+    private final Map<TaskEvent.Kind, Long> nanos = new EnumMap<>(TaskEvent.Kind.class);
+    private final Map<TaskEvent.Kind, Integer> depth = new EnumMap<>(TaskEvent.Kind.class);
+    private final Map<TaskEvent.Kind, Long> startedAt = new EnumMap<>(TaskEvent.Kind.class);
+    private int compilations;
+
+    @Override
+    public void started(TaskEvent e) {
+        if (depth.merge(e.getKind(), 1, Integer::sum) == 1) {
+            startedAt.put(e.getKind(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void finished(TaskEvent e) {
+        if (depth.merge(e.getKind(), -1, Integer::sum) == 0) {
+            nanos.merge(e.getKind(), System.nanoTime() - startedAt.get(e.getKind()), Long::sum);
+        }
+    }
+
+    void compilationFinished() {
+        compilations++;
+    }
+
+    /**
+     * @return 每次编译各阶段的平均耗时
+     */
+    String report() {
+        StringBuilder sb = new StringBuilder("javac phases (avg ms per compilation of ").append(compilations).append("):");
+        for (Map.Entry<TaskEvent.Kind, Long> entry : nanos.entrySet()) {
+            sb.append(' ').append(entry.getKey().name().toLowerCase()).append('=')
+                    .append(String.format("%.1f", entry.getValue() / 1e6 / Math.max(compilations, 1)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package org.ftibw.mongo.modelgen.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注解处理器的压测：每次调用在内存中完整编译一遍{@link SyntheticSources}生成的实体
+ * <ul>
+ * <li>{@link #compile}：运行注解处理器并编译全部源码（含生成的元模型和dto）</li>
+ * <li>{@link #processOnly}：-proc:only，只解析实体并运行注解处理器</li>
+ * <li>{@link #compileWithoutProcessor}：-proc:none，javac本身的开销，作为对照</li>
+ * </ul>
+ * 吞吐量以每秒处理的实体数（entities）报告；分配率通过 -prof gc 查看；
+ * javac各阶段的平均耗时在每个fork结束时打印
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 15:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class ProcessorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int entities;
+
+    @Param("10")
+    public int fields;
+
+    @Param("2")
+    public int collections;
+
+    @Param("2")
+    public int superclassDepth;
+
+    @Param("3")
+    public int specs;
+
+    @Param("5")
+    public int propsPerSpec;
+
+    @Param("1")
+    public int rulesPerProp;
+
+    @Param("1")
+    public int parallelism;
+
+    private InMemoryCompiler compiler;
+    private PhaseTimer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticSources sources = new SyntheticSources(
+                entities, fields, collections, superclassDepth, specs, propsPerSpec, rulesPerProp
+        );
+        compiler = new InMemoryCompiler(sources.generate());
+        timer = new PhaseTimer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(timer.report());
+    }
+
+    /**
+     * 以实体数作为操作数，报告每秒处理的实体数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long entities;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            entities = 0;
+        }
+    }
+
+    @Benchmark
+    public int compile(Throughput throughput) {
+        throughput.entities += entities;
+        return compiler.compile("full", parallelism, timer);
+    }
+
+    @Benchmark
+    public int processOnly(Throughput throughput) {
+        throughput.entities += entities;
+        return compiler.compile("only", parallelism, timer);
+    }
+
+    @Benchmark
+    public int compileWithoutProcessor(Throughput throughput) {
+        throughput.entities += entities;
+        return compiler.compile("none", parallelism, timer);
+    }
+}
@@ -0,0 +1,213 @@
+package org.ftibw.mongo.modelgen.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 生成压测用的实体源码（全限定类名 -> 源码）
+ * <p>
+ * 实体分布在bench.entity.gN包中（每包100个），全部继承同一条深度为superclassDepth的@MappedSuperclass链，
+ * 每个实体声明fields个普通字段和collections个集合字段（其中Set引用下一个实体），
+ * 并按specs、propsPerSpec、rulesPerProp的密度声明@Spec/@Prop/@Rule
+ * <p>
+ * 生成的dto引用了spring data、lombok、swagger、validation的注解，这里一并生成最简的注解桩，不依赖真实的jar
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 14:50
+ */
+final class SyntheticSources {
+    private static final String BASE_PACKAGE = "bench.entity";
+    private static final int ENTITIES_PER_PACKAGE = 100;
+
+    private static final String[] FIELD_TYPES = {"String", "Integer", "Long", "Date", "Boolean", "int"};
+    private static final String[] RULES = {"Rule_.NotNull, \"不能为空\"", "Rule_.Size, \"长度超限\", \"1,20\"",
+            "Rule_.Pattern, \"格式错误\", Rule_.REGEX_PHONE_NUMBER"};
+    private static final String[] SPEC_TYPES = {"Type.DTO", "Type.VO", "Type.QO"};
+
+    private static final String[][] STUBS = {
+            {"org.springframework.data.mongodb.core.mapping.Document", "@Retention(RetentionPolicy.RUNTIME) @Target(ElementType.TYPE) public @interface Document { String value() default \"\"; }"},
+            {"org.springframework.data.annotation.Id", "@Retention(RetentionPolicy.RUNTIME) public @interface Id {}"},
+            {"org.springframework.data.annotation.Transient", "@Retention(RetentionPolicy.RUNTIME) public @interface Transient {}"},
+            {"lombok.Getter", "@Retention(RetentionPolicy.SOURCE) public @interface Getter {}"},
+            {"lombok.Setter", "@Retention(RetentionPolicy.SOURCE) public @interface Setter {}"},
+            {"lombok.EqualsAndHashCode", "public @interface EqualsAndHashCode { boolean doNotUseGetters() default false; boolean onlyExplicitlyIncluded() default false; @interface Include {} }"},
+            {"io.swagger.annotations.ApiModel", "public @interface ApiModel { String value() default \"\"; }"},
+            {"io.swagger.annotations.ApiModelProperty", "public @interface ApiModelProperty { String value() default \"\"; }"},
+            {"javax.annotation.Generated", "public @interface Generated { String[] value(); String date() default \"\"; }"},
+            {"javax.validation.Valid", "public @interface Valid {}"},
+            {"javax.validation.constraints.NotNull", "public @interface NotNull { String message() default \"\"; }"},
+            {"javax.validation.constraints.NotBlank", "public @interface NotBlank { String message() default \"\"; }"},
+            {"javax.validation.constraints.NotEmpty", "public @interface NotEmpty { String message() default \"\"; }"},
+            {"javax.validation.constraints.Size", "public @interface Size { int min() default 0; int max() default 2147483647; String message() default \"\"; }"},
+            {"javax.validation.constraints.Pattern", "public @interface Pattern { String regexp(); String message() default \"\"; }"},
+            {"org.hibernate.validator.constraints.Range", "public @interface Range { long min() default 0; long max() default 9223372036854775807L; String message() default \"\"; }"},
+    };
+
+    private final int entities;
+    private final int fields;
+    private final int collections;
+    private final int superclassDepth;
+    private final int specs;
+    private final int propsPerSpec;
+    private final int rulesPerProp;
+
+    /**
+     * @param entities        实体数量
+     * @param fields          每个实体的普通字段数量
+     * @param collections     每个实体的集合字段数量
+     * @param superclassDepth 实体之上的@MappedSuperclass层数
+     * @param specs           每个实体的@Spec数量
+     * @param propsPerSpec    每个@Spec的@Prop数量（不超过实体的字段数量）
+     * @param rulesPerProp    每个@Prop的@Rule数量（0~3）
+     */
+    SyntheticSources(int entities, int fields, int collections, int superclassDepth,
+                     int specs, int propsPerSpec, int rulesPerProp) {
+        this.entities = entities;
+        this.fields = fields;
+        this.collections = collections;
+        this.superclassDepth = superclassDepth;
+        this.specs = specs;
+        this.propsPerSpec = Math.min(propsPerSpec, fields + collections + 2 * superclassDepth);
+        this.rulesPerProp = Math.min(rulesPerProp, RULES.length);
+    }
+
+    int getEntities() {
+        return entities;
+    }
+
+    Map<String, String> generate() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String[] stub : STUBS) {
+            sources.put(stub[0], stubSource(stub[0], stub[1]));
+        }
+        for (int depth = 0; depth < superclassDepth; depth++) {
+            sources.put(BASE_PACKAGE + ".Base" + depth, mappedSuperclassSource(depth));
+        }
+        for (int i = 0; i < entities; i++) {
+            sources.put(entityPackage(i) + "." + entityName(i), entitySource(i));
+        }
+        return sources;
+    }
+
+    private static String stubSource(String qualifiedName, String declaration) {
+        int lastDot = qualifiedName.lastIndexOf('.');
+        return "package " + qualifiedName.substring(0, lastDot) + ";\n"
+                + "import java.lang.annotation.*;\n"
+                + declaration + "\n";
+    }
+
+    private String mappedSuperclassSource(int depth) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("package ").append(BASE_PACKAGE).append(";\n\n")
+                .append("import org.ftibw.mongo.modelgen.publics.MappedSuperclass;\n")
+                .append("import org.springframework.data.annotation.Id;\n")
+                .append("import java.util.Date;\n\n")
+                .append("@MappedSuperclass\n")
+                .append("public abstract class Base").append(depth);
+        if (depth > 0) {
+            sb.append(" extends Base").append(depth - 1);
+        }
+        sb.append(" {\n");
+        if (depth == 0) {
+            sb.append("    @Id\n");
+            appendProperty(sb, "String", "id");
+        } else {
+            appendProperty(sb, "String", "b" + depth);
+        }
+        appendProperty(sb, "Date", "d" + depth);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String entitySource(int i) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("package ").append(entityPackage(i)).append(";\n\n")
+                .append("import org.ftibw.mongo.modelgen.publics.dto.*;\n")
+                .append("import org.springframework.data.mongodb.core.mapping.Document;\n")
+                .append("import java.util.*;\n\n")
+                .append("@Document(\"").append(entityName(i).toLowerCase()).append("\")\n");
+        for (int s = 0; s < specs; s++) {
+            appendSpec(sb, s);
+        }
+        sb.append("public class ").append(entityName(i));
+        if (superclassDepth > 0) {
+            sb.append(" extends ").append(BASE_PACKAGE).append(".Base").append(superclassDepth - 1);
+        }
+        sb.append(" {\n");
+        for (int f = 0; f < fields; f++) {
+            appendProperty(sb, FIELD_TYPES[f % FIELD_TYPES.length], "f" + f);
+        }
+        for (int c = 0; c < collections; c++) {
+            if (c % 2 == 0) {
+                appendProperty(sb, "List<String>", "c" + c);
+            } else {
+                int next = (i + 1) % entities;
+                appendProperty(sb, "Set<" + entityPackage(next) + "." + entityName(next) + ">", "c" + c);
+            }
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void appendSpec(StringBuilder sb, int s) {
+        sb.append("@Spec(type = ").append(SPEC_TYPES[s % SPEC_TYPES.length]);
+        if (s >= SPEC_TYPES.length) {
+            sb.append(", namespace = \"s").append(s).append('"');
+        }
+        sb.append(", value = {");
+        for (int p = 0; p < propsPerSpec; p++) {
+            if (p > 0) {
+                sb.append(", ");
+            }
+            sb.append("@Prop(value = {\"").append(propertyName(p)).append("\", \"属性").append(p).append("\"}");
+            if (rulesPerProp > 0) {
+                sb.append(", rule = {");
+                for (int r = 0; r < rulesPerProp; r++) {
+                    if (r > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append("@Rule({").append(RULES[(p + r) % RULES.length]).append("})");
+                }
+                sb.append('}');
+            }
+            sb.append(')');
+        }
+        sb.append("})\n");
+    }
+
+    /**
+     * 依次是普通字段、集合字段和父类字段
+     */
+    private String propertyName(int p) {
+        if (p < fields) {
+            return "f" + p;
+        }
+        p -= fields;
+        if (p < collections) {
+            return "c" + p;
+        }
+        p -= collections;
+        int depth = p / 2;
+        if (p % 2 == 1) {
+            return "d" + depth;
+        }
+        return depth == 0 ? "id" : "b" + depth;
+    }
+
+    private static void appendProperty(StringBuilder sb, String type, String name) {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        sb.append("    private ").append(type).append(' ').append(name).append(";\n")
+                .append("    public ").append(type).append(" get").append(capitalized)
+                .append("() { return ").append(name).append("; }\n")
+                .append("    public void set").append(capitalized).append('(').append(type)
+                .append(" v) { this.").append(name).append(" = v; }\n");
+    }
+
+    private static String entityPackage(int i) {
+        return BASE_PACKAGE + ".g" + (i / ENTITIES_PER_PACKAGE);
+    }
+
+    private static String entityName(int i) {
+        return "Entity" + i;
+    }
+}
@@ -0,0 +1,85 @@
+package org.ftibw.mongo.modelgen;
+
+import org.ftibw.mongo.modelgen.util.Constants;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import java.util.*;
+
+/**
+ * 一轮处理中带{@code @Document}、{@code @MappedSuperclass}注解的类型索引
+ * <p>
+ * 通过{@link RoundEnvironment#getElementsAnnotatedWith(TypeElement)}发现（包括静态嵌套类），
+ * 不再扫描全部根元素，之后按全限定名常数时间判断
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 14:20
+ */
+public final class AnnotationIndex {
+
+    private final Map<String, TypeElement> types = new LinkedHashMap<>();
+    private final Set<String> entities = new HashSet<>();
+    private final Set<String> mappedSuperclasses = new HashSet<>();
+
+    private AnnotationIndex() {
+    }
+
+    public static AnnotationIndex build(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        AnnotationIndex index = new AnnotationIndex();
+        for (TypeElement annotation : annotations) {
+            Set<String> names;
+            if (annotation.getQualifiedName().contentEquals(Constants.ENTITY)) {
+                names = index.entities;
+            } else if (annotation.getQualifiedName().contentEquals(Constants.MAPPED_SUPERCLASS)) {
+                names = index.mappedSuperclasses;
+            } else {
+                continue;
+            }
+            for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation)) {
+                if (!isModelClass(element)) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                String qualifiedName = type.getQualifiedName().toString();
+                names.add(qualifiedName);
+                index.types.put(qualifiedName, type);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 只处理顶层类和静态嵌套类，非静态内部类无法独立实例化
+     */
+    private static boolean isModelClass(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return false;
+        }
+        NestingKind nestingKind = ((TypeElement) element).getNestingKind();
+        return nestingKind == NestingKind.TOP_LEVEL
+                || nestingKind == NestingKind.MEMBER && element.getModifiers().contains(Modifier.STATIC);
+    }
+
+    /**
+     * @return 本轮发现的全部类型，按发现顺序
+     */
+    public Collection<TypeElement> getTypes() {
+        return types.values();
+    }
+
+    public boolean isEntity(String qualifiedName) {
+        return entities.contains(qualifiedName);
+    }
+
+    public boolean isMappedSuperclass(String qualifiedName) {
+        return mappedSuperclasses.contains(qualifiedName);
+    }
+
+    public boolean contains(String qualifiedName) {
+        return types.containsKey(qualifiedName);
+    }
+}
@@ -6,438 +6,783 @@
  */
 package org.ftibw.mongo.modelgen;
 
+import org.ftibw.mongo.modelgen.model.AttributeSnapshot;
+import org.ftibw.mongo.modelgen.model.BsonKind;
+import org.ftibw.mongo.modelgen.model.CodecField;
+import org.ftibw.mongo.modelgen.model.EntitySnapshot;
 import org.ftibw.mongo.modelgen.model.ImportContext;
-import org.ftibw.mongo.modelgen.model.MetaAttribute;
-import org.ftibw.mongo.modelgen.model.MetaCollection;
 import org.ftibw.mongo.modelgen.model.MetaEntity;
-import org.ftibw.mongo.modelgen.publics.dto.Rule;
 import org.ftibw.mongo.modelgen.publics.dto.Rule_;
 import org.ftibw.mongo.modelgen.publics.dto.Type;
+import org.ftibw.mongo.modelgen.template.Template;
+import org.ftibw.mongo.modelgen.template.TemplateScope;
+import org.ftibw.mongo.modelgen.template.TypeName;
 import org.ftibw.mongo.modelgen.util.*;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.FilerException;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.type.DeclaredType;
-import javax.lang.model.type.TypeKind;
-import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Helper class to write the actual meta model class using the  {@link javax.annotation.processing.Filer} API.
+ * <p>
+ * Rendering only reads an {@link EntitySnapshot} and may therefore run on any thread, whereas creating the snapshot
+ * and writing the files has to happen on the javac thread.
  *
  * @author Emmanuel Bernard
  * @author Hardy Ferentschik
  */
 public final class ClassWriter {
     private static final String META_MODEL_CLASS_NAME_SUFFIX = "_";
-    private static final ThreadLocal<SimpleDateFormat> SIMPLE_DATE_FORMAT = ThreadLocal.withInitial(() ->
-            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
+    private static final String CODEC_CLASS_NAME_SUFFIX = "Codec";
+    private static final String LAZY_CLASS_NAME_PREFIX = "Lazy";
+    private static final String ATTRIBUTE = "org.ftibw.mongo.modelgen.publics.query.Attribute";
+    private static final String COLLECTION_ATTRIBUTE = "org.ftibw.mongo.modelgen.publics.query.CollectionAttribute";
+    /**
+     * The key of the type hint written by spring's MappingMongoConverter.
+     */
+    private static final String TYPE_KEY = "_class";
+    /**
+     * Number of codecs registered per method of the codec provider, keeps the methods far below the 64k limit.
+     */
+    private static final int CODECS_PER_REGISTER_METHOD = 500;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
 
     private ClassWriter() {
     }
 
-    public static void writeFile(MetaEntity entity, Context context) {
-        writeFileMetaModel(entity, context);
-        writeFileDtoModel(entity, context);
-    }
-
-    public static void writeFileMetaModel(MetaEntity entity, Context context) {
-        try {
-            String modelPackage = entity.getPackageName();
-            String metaPackage = toMetaPackage(modelPackage);
-            // need to generate the body first, since this will also update the required imports which need to
-            // be written out first
-            String body = generateBody(entity, context).toString();
-
-            FileObject fo = context.getProcessingEnvironment().getFiler().createSourceFile(
-                    getFullyQualifiedClassName(entity, metaPackage)
-            );
-            OutputStream os = fo.openOutputStream();
-            PrintWriter pw = new PrintWriter(os);
-
-            pw.println("package " + metaPackage + ";");
-            pw.println();
-
-            ImportContext importContext = new ImportContextImpl(metaPackage);
-            for (String typeImport : entity.getImports()) {
-                importContext.importType(typeImport);
-            }
-            pw.println(importContext.generateImports());
-            pw.println(body);
-
-            pw.flush();
-            pw.close();
-        } catch (FilerException filerEx) {
-            context.logMessage(
-                    Diagnostic.Kind.ERROR, "Problem with Filer: " + filerEx.getMessage()
-            );
-        } catch (IOException ioEx) {
-            context.logMessage(
-                    Diagnostic.Kind.ERROR,
-                    "Problem opening file to write MetaModel for " + entity.getSimpleName() + ioEx.getMessage()
+    /**
+     * Extracts everything needed for rendering from the javac model of the given entity.
+     *
+     * @param entity  The meta entity for which to create the snapshot
+     * @param context The processing context
+     * @return a snapshot which is safe to be rendered on any thread
+     */
+    public static EntitySnapshot createSnapshot(MetaEntity entity, Context context) {
+        TypeElement superElement = context.getTypeHierarchy().getMappedSuperclass(entity);
+        String superClassName = null;
+        String superMetaModelName = null;
+        if (superElement != null) {
+            superClassName = superElement.getQualifiedName().toString();
+            // nested super classes have their meta model in the meta package as well
+            String superPackage = context.getElementUtils().getPackageOf(superElement).getQualifiedName().toString();
+            superMetaModelName = getFullyQualifiedClassName(
+                    superElement.getSimpleName().toString(), toMetaPackage(superPackage)
             );
         }
-    }
-
-    public static void writeFileDtoModel(MetaEntity entity, Context context) {
-        List<DtoSpec> dtoSpecs = DtoSpec.getDtoSpecification(entity.getQualifiedName());
-        if (dtoSpecs == null) {
-            return;
+        List<DtoSpec> dtoSpecs = context.getDtoSpecifications(entity.getQualifiedName());
+        List<CodecField> codecFields = null;
+        boolean codec = false;
+        if (context.generateCodecs() || context.generateQueryAttributes()
+                || (context.generateVoDecoders() || context.generateVoProjections()) && hasVo(dtoSpecs)) {
+            codecFields = CodecFields.of(entity.getTypeElement(), context);
+            codec = context.generateCodecs() && CodecFields.supportsCodec(entity.getTypeElement(), codecFields, context);
         }
-        try {
-            String modelPackage = entity.getPackageName();
+        return new EntitySnapshot(
+                entity.getQualifiedName(),
+                context.getElementUtils().getBinaryName(entity.getTypeElement()).toString(),
+                entity.getSimpleName(),
+                entity.getPackageName(),
+                superClassName,
+                superMetaModelName,
+                entity.getMemberSnapshots(),
+                dtoSpecs == null ? Collections.emptyList() : getSuperClassMembersForMerge(superClassName, context),
+                dtoSpecs == null ? Collections.emptyList() : dtoSpecs,
+                new ArrayList<>(DtoSpec.getDefaultDtoProps(entity.getTypeElement()).values()),
+                codecFields,
+                codec
+        );
+    }
 
-            Filer filer = context.getProcessingEnvironment().getFiler();
+    private static boolean hasVo(List<DtoSpec> dtoSpecs) {
+        if (dtoSpecs != null) {
             for (DtoSpec dtoSpec : dtoSpecs) {
-                String dtoPackage = getDtoPackage(dtoSpec, modelPackage);
-
-                // need to generate the body first, since this will also update the required imports which need to
-                // be written out first
-                String body = generateBodyDto(entity, context, dtoSpec).toString();
-
-                FileObject fo = filer.createSourceFile(
-                        getFullyQualifiedClassNameDto(entity, dtoPackage, dtoSpec)
-                );
-                OutputStream os = fo.openOutputStream();
-                PrintWriter pw = new PrintWriter(os);
-
-                pw.println("package " + dtoPackage + ";");
-                pw.println();
-
-                ImportContext importContext = new ImportContextImpl(dtoPackage);
-                for (String typeImport : entity.getImports()) {
-                    if (typeImport.endsWith(META_MODEL_CLASS_NAME_SUFFIX)) {
-                        continue;
-                    }
-                    importContext.importType(typeImport);
+                if (dtoSpec.getType() == Type.VO) {
+                    return true;
                 }
-
-                pw.println(importContext.generateImports());
-                //不同dto的导入不同，每次需要清理
-                context.clearDirtImports(entity);
-
-                pw.println(body);
-
-                pw.flush();
-                pw.close();
             }
-        } catch (FilerException filerEx) {
-            context.logMessage(
-                    Diagnostic.Kind.ERROR, "Problem with Filer: " + filerEx.getMessage()
-            );
-        } catch (IOException ioEx) {
-            context.logMessage(
-                    Diagnostic.Kind.ERROR,
-                    "Problem opening file to write DtoModel for " + entity.getSimpleName() + ioEx.getMessage()
-            );
         }
+        return false;
     }
 
     /**
-     * Generate everything after import statements.
+     * Renders the meta model and all dto models of the given entity without writing them.
      *
-     * @param entity  The meta entity for which to write the body
+     * @param entity  The snapshot of the entity for which to generate the sources
      * @param context The processing context
-     * @return body content
+     * @return the generated source files according to the generate mode, meta model first, followed by the dtos, the
+     * lazy vos, the codecs of the entity and its vos and the meta model index
      */
-    private static StringBuffer generateBody(MetaEntity entity, Context context) {
-        StringWriter sw = new StringWriter();
-        try (PrintWriter pw = new PrintWriter(sw)) {
+    public static List<GeneratedFile> generateFiles(EntitySnapshot entity, Context context) {
+        List<Supplier<GeneratedFile>> jobs = createRenderJobs(entity, context);
+        List<GeneratedFile> files = new ArrayList<>(jobs.size());
+        for (Supplier<GeneratedFile> job : jobs) {
+            files.add(job.get());
+        }
+        return files;
+    }
 
-            if (context.addGeneratedAnnotation()) {
-                pw.println(writeGeneratedAnnotation(entity, context));
+    /**
+     * Splits the rendering of the given entity into one job per generated file. Every file has its own import scope
+     * and the snapshot is read-only, so the jobs are independent of each other and may run concurrently.
+     *
+     * @param entity  The snapshot of the entity for which to generate the sources
+     * @param context The processing context
+     * @return the render jobs in the order of {@link #generateFiles(EntitySnapshot, Context)}
+     */
+    public static List<Supplier<GeneratedFile>> createRenderJobs(EntitySnapshot entity, Context context) {
+        List<Supplier<GeneratedFile>> jobs = new ArrayList<>(2 + entity.getDtoSpecs().size());
+        if (context.generateMetaModels()) {
+            jobs.add(() -> generateMetaModel(entity, context));
+        }
+        if (context.generateDtoModels()) {
+            for (DtoSpec dtoSpec : entity.getDtoSpecs()) {
+                jobs.add(() -> generateDtoModel(entity, dtoSpec, context));
             }
-
-            printClassDeclaration(entity, pw, context);
-
-            List<MetaAttribute> members = entity.getMembers();
-            for (MetaAttribute metaMember : members) {
-                pw.println("	" + metaMember.getAttributeNameDeclarationString());
+        }
+        if (context.generateLazyVos()) {
+            for (DtoSpec dtoSpec : entity.getDtoSpecs()) {
+                if (dtoSpec.getType() == Type.VO && getDecoderFields(entity, dtoSpec) != null) {
+                    jobs.add(() -> generateLazyVo(entity, dtoSpec, context));
+                }
             }
-            pw.println();
-            pw.println("}");
-            return sw.getBuffer();
         }
+        if (entity.isCodec()) {
+            jobs.add(() -> generateCodec(entity, null, context));
+            if (context.generateDtoModels()) {
+                for (DtoSpec dtoSpec : entity.getDtoSpecs()) {
+                    if (dtoSpec.getType() == Type.VO && getDecoderFields(entity, dtoSpec) != null) {
+                        jobs.add(() -> generateCodec(entity, dtoSpec, context));
+                    }
+                }
+            }
+        }
+        if (context.generateMetaModels()) {
+            jobs.add(() -> generateMetaModelIndex(entity));
+        }
+        return jobs;
     }
 
-    private static StringBuffer generateBodyDto(MetaEntity entity, Context context, DtoSpec dtoSpec) {
-        StringWriter sw = new StringWriter();
-        try (PrintWriter pw = new PrintWriter(sw)) {
+    public static void writeFiles(MetaEntity entity, List<GeneratedFile> files, Context context) {
+        // the mapped super class is reachable from the entity, so the entity is the only originating element
+        writeFiles(entity.getSimpleName(), files, context, entity.getTypeElement());
+    }
 
-            if (context.addGeneratedAnnotation()) {
-                pw.println(writeGeneratedAnnotation(entity, context));
+    /**
+     * @param owner               The name of the type the files are generated for, used in error messages
+     * @param originatingElements The types the files are generated from
+     */
+    public static void writeFiles(String owner, List<GeneratedFile> files, Context context,
+                                  Element... originatingElements) {
+        Filer filer = context.getProcessingEnvironment().getFiler();
+        ProcessingMetrics metrics = context.getMetrics();
+        long start = metrics.start();
+        for (GeneratedFile file : files) {
+            try {
+                // encoded in one go into an exactly sized buffer, independent of the platform default charset
+                byte[] content = file.getContent().getBytes(StandardCharsets.UTF_8);
+                try (OutputStream os = openOutputStream(file, originatingElements, filer, context)) {
+                    os.write(content);
+                }
+                metrics.add(ProcessingMetrics.Counter.BYTES_WRITTEN, content.length);
+            } catch (FilerException filerEx) {
+                context.logMessage(
+                        Diagnostic.Kind.ERROR, "Problem with Filer: " + filerEx.getMessage()
+                );
+            } catch (IOException ioEx) {
+                context.logMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Problem opening file to write " + file.getQualifiedName() + " for "
+                                + owner + ioEx.getMessage()
+                );
             }
+        }
+        metrics.stop(ProcessingMetrics.Phase.FILER_WRITE, start);
+    }
 
-            pw.println(writeApiModelAnnotation(entity, dtoSpec));
+    private static OutputStream openOutputStream(GeneratedFile file, Element[] originatingElements, Filer filer,
+                                                 Context context) throws IOException {
+        File directory = file.isResource() ? context.getResourceOutputDirectory() : context.getOutputDirectory();
+        if (directory == null) {
+            FileObject fo = file.isResource()
+                    ? filer.createResource(StandardLocation.CLASS_OUTPUT, "", file.getQualifiedName(), originatingElements)
+                    : filer.createSourceFile(file.getQualifiedName(), originatingElements);
+            return fo.openOutputStream();
+        }
+        String relativeName = file.isResource()
+                ? file.getQualifiedName()
+                : file.getQualifiedName().replace('.', '/') + ".java";
+        Path path = directory.toPath().resolve(relativeName);
+        Files.createDirectories(path.getParent());
+        return Files.newOutputStream(path);
+    }
 
-            printEqualsAndHashCodeAnnotation(entity, dtoSpec, pw);
+    private static GeneratedFile generateMetaModel(EntitySnapshot entity, Context context) {
+        ProcessingMetrics metrics = context.getMetrics();
+        long start = metrics.start();
+        String metaPackage = toMetaPackage(entity.getPackageName());
+        String content = render(
+                context.getTemplates().getMetaModel(),
+                createMetaModelScope(entity, context),
+                new ImportContextImpl(metaPackage, context.getTypeReferences()),
+                metaPackage,
+                estimateLength(entity.getMembers().size())
+        );
+        GeneratedFile file = new GeneratedFile(getMetaModelName(entity), content);
+
+        metrics.stop(ProcessingMetrics.Phase.META_MODEL_RENDER, start);
+        metrics.add(ProcessingMetrics.Counter.ATTRIBUTES, entity.getMembers().size());
+        return file;
+    }
 
-            pw.println(writeGetterSetterAnnotation(entity));
+    private static GeneratedFile generateDtoModel(EntitySnapshot entity, DtoSpec dtoSpec, Context context) {
+        ProcessingMetrics metrics = context.getMetrics();
+        long start = metrics.start();
+        String dtoPackage = getDtoPackage(dtoSpec, entity.getPackageName());
+        String content = render(
+                context.getTemplates().getDto(),
+                createDtoScope(entity, dtoSpec, context),
+                new ImportContextImpl(dtoPackage, context.getTypeReferences()),
+                dtoPackage,
+                estimateLength(dtoSpec.getPropertyMap().size())
+        );
+        GeneratedFile file = new GeneratedFile(getFullyQualifiedClassNameDto(entity, dtoPackage, dtoSpec), content);
+
+        metrics.stop(ProcessingMetrics.Phase.DTO_RENDER, start);
+        return file;
+    }
 
-            printClassDeclarationDto(entity, pw, dtoSpec);
+    private static GeneratedFile generateLazyVo(EntitySnapshot entity, DtoSpec dtoSpec, Context context) {
+        ProcessingMetrics metrics = context.getMetrics();
+        long start = metrics.start();
+        String voPackage = getDtoPackage(dtoSpec, entity.getPackageName());
+        String className = LAZY_CLASS_NAME_PREFIX + getDtoClassSimpleName(entity, dtoSpec);
+        // same api as the vo: the boxed property types and lombok's getters, null for absent fields
+        List<TemplateScope> fields = createCodecFieldScopes(toVoFields(getDecoderFields(entity, dtoSpec)));
+        String content = render(
+                context.getTemplates().getLazyVo(),
+                createFileScope(entity, context)
+                        .put("className", className)
+                        .put("vo", TypeName.of(getFullyQualifiedClassNameDto(entity, voPackage, dtoSpec)))
+                        .put("fields", fields),
+                new ImportContextImpl(voPackage, context.getTypeReferences()),
+                voPackage,
+                estimateLength(fields.size() * 2)
+        );
+        GeneratedFile file = new GeneratedFile(voPackage + "." + className, content);
+
+        metrics.stop(ProcessingMetrics.Phase.DTO_RENDER, start);
+        return file;
+    }
 
-            Map<String, DtoProp> propertyMap = dtoSpec.getPropertyMap();
+    /**
+     * @param dtoSpec The vo to generate the codec for, {@code null} for the codec of the entity itself
+     */
+    private static GeneratedFile generateCodec(EntitySnapshot entity, DtoSpec dtoSpec, Context context) {
+        ProcessingMetrics metrics = context.getMetrics();
+        long start = metrics.start();
+        String target;
+        String codecPackage;
+        if (dtoSpec == null) {
+            target = entity.getQualifiedName();
+            codecPackage = toCodecPackage(entity.getPackageName());
+        } else {
+            codecPackage = getDtoPackage(dtoSpec, entity.getPackageName());
+            target = getFullyQualifiedClassNameDto(entity, codecPackage, dtoSpec);
+        }
+        String className = ImportContextImpl.unqualify(target) + CODEC_CLASS_NAME_SUFFIX;
+        List<TemplateScope> fields = createCodecFieldScopes(
+                dtoSpec == null ? entity.getCodecFields() : toVoFields(getDecoderFields(entity, dtoSpec))
+        );
+        String content = render(
+                context.getTemplates().getCodec(),
+                createFileScope(entity, context)
+                        .put("className", className)
+                        .put("target", TypeName.of(target))
+                        // vos are no entities, they are read with a projection and never written back
+                        .put("typeKey", dtoSpec == null ? TYPE_KEY : null)
+                        .put("typeAlias", dtoSpec == null ? entity.getBinaryName() : null)
+                        .put("fields", fields),
+                new ImportContextImpl(codecPackage, context.getTypeReferences()),
+                codecPackage,
+                estimateLength(fields.size() * 4)
+        );
+        GeneratedFile file = GeneratedFile.codec(codecPackage + "." + className, content, target);
+
+        metrics.stop(ProcessingMetrics.Phase.CODEC_RENDER, start);
+        return file;
+    }
 
-            List<String> printedEntityPropNames = new ArrayList<>();
+    private static List<CodecField> toVoFields(List<CodecField> codecFields) {
+        List<CodecField> fields = new ArrayList<>(codecFields.size());
+        for (CodecField field : codecFields) {
+            fields.add(field.toVoField());
+        }
+        return fields;
+    }
 
-            List<MetaAttribute> superMembers = getSuperClassMembersForMerge(entity, context);
-            for (MetaAttribute metaMember : superMembers) {
+    private static List<TemplateScope> createCodecFieldScopes(List<CodecField> codecFields) {
+        List<TemplateScope> fields = new ArrayList<>(codecFields.size());
+        for (CodecField field : codecFields) {
+            fields.add(createCodecFieldScope(field));
+        }
+        return fields;
+    }
 
-                String propertyName = metaMember.getPropertyName();
-                DtoProp dtoProp = propertyMap.get(propertyName);
-                if (dtoProp == null) {
-                    continue;
-                }
-                if ("id".equals(propertyName)) {
-                    //将superClass中成员类型导入到dto中
-                    importSuperMemberType(entity, metaMember, context);
-
-                    printEqualsAndHashCodeIncludeAnnotation(dtoProp, pw);
-                    printConstraintAnnotation(entity, dtoProp, pw);
-                    pw.println(writeApiModelPropertyAnnotation(entity, dtoProp));
-                    pw.println("	" + metaMember.getAttributeDeclarationString());
-                    printedEntityPropNames.add(propertyName);
-                    break;
-                }
+    /**
+     * @return the document names of the printed properties of the vo, the property name is used for properties which
+     * are no persistent field of the entity
+     */
+    private static List<String> getProjectedDocumentNames(EntitySnapshot entity, DtoSpec dtoSpec) {
+        Map<String, String> documentNames = new HashMap<>();
+        if (entity.getCodecFields() != null) {
+            for (CodecField field : entity.getCodecFields()) {
+                documentNames.put(field.getPropertyName(), field.getDocumentName());
             }
+        }
+        List<String> propertyNames = getDtoPropertyNames(entity, dtoSpec);
+        List<String> projection = new ArrayList<>(propertyNames.size());
+        for (String propertyName : propertyNames) {
+            String documentName = documentNames.get(propertyName);
+            if (documentName == null) {
+                documentName = "id".equals(propertyName) ? "_id" : propertyName;
+            }
+            projection.add(documentName);
+        }
+        return projection;
+    }
 
-            List<MetaAttribute> members = entity.getMembers();
-            for (MetaAttribute metaMember : members) {
-                String propertyName = metaMember.getPropertyName();
-                DtoProp dtoProp = propertyMap.get(propertyName);
-                if (dtoProp == null) {
-                    continue;
-                }
-                printEqualsAndHashCodeIncludeAnnotation(dtoProp, pw);
-                printConstraintAnnotation(entity, dtoProp, pw);
-                pw.println(writeApiModelPropertyAnnotation(entity, dtoProp));
-                pw.println("	" + metaMember.getAttributeDeclarationString());
-                printedEntityPropNames.add(propertyName);
+    /**
+     * The codec and the decoding methods of a vo read the printed properties of the vo, in the order of the vo.
+     *
+     * @return {@code null} if a printed property is no persistent field of the entity or its type is not supported
+     */
+    private static List<CodecField> getDecoderFields(EntitySnapshot entity, DtoSpec dtoSpec) {
+        List<CodecField> codecFields = entity.getCodecFields();
+        if (codecFields == null) {
+            return null;
+        }
+        Map<String, CodecField> fieldMap = new HashMap<>();
+        for (CodecField field : codecFields) {
+            fieldMap.put(field.getPropertyName(), field);
+        }
+        List<CodecField> fields = new ArrayList<>();
+        for (String propertyName : getDtoPropertyNames(entity, dtoSpec)) {
+            CodecField field = fieldMap.get(propertyName);
+            if (field == null || !field.isSupported()) {
+                return null;
             }
+            fields.add(field);
+        }
+        return fields;
+    }
 
-            for (MetaAttribute metaMember : superMembers) {
+    /**
+     * @return the names of the printed properties of the dto in the order of {@link #createDtoScope}
+     */
+    private static List<String> getDtoPropertyNames(EntitySnapshot entity, DtoSpec dtoSpec) {
+        Map<String, DtoProp> propertyMap = dtoSpec.getPropertyMap();
+        List<String> names = new ArrayList<>(propertyMap.size());
+        List<AttributeSnapshot> superMembers = entity.getSuperMembers();
+        for (AttributeSnapshot metaMember : superMembers) {
+            if ("id".equals(metaMember.getPropertyName()) && propertyMap.containsKey("id")) {
+                names.add("id");
+                break;
+            }
+        }
+        for (AttributeSnapshot metaMember : entity.getMembers()) {
+            if (propertyMap.containsKey(metaMember.getPropertyName())) {
+                names.add(metaMember.getPropertyName());
+            }
+        }
+        for (AttributeSnapshot metaMember : superMembers) {
+            String propertyName = metaMember.getPropertyName();
+            if (!"id".equals(propertyName) && propertyMap.containsKey(propertyName)) {
+                names.add(propertyName);
+            }
+        }
+        return names;
+    }
 
-                String propertyName = metaMember.getPropertyName();
-                DtoProp dtoProp = propertyMap.get(propertyName);
-                if (dtoProp == null) {
-                    continue;
-                }
-                if ("id".equals(propertyName)) {
-                    continue;
-                }
-                //将superClass中成员类型导入到dto中
-                importSuperMemberType(entity, metaMember, context);
-
-                printEqualsAndHashCodeIncludeAnnotation(dtoProp, pw);
-                printConstraintAnnotation(entity, dtoProp, pw);
-                pw.println(writeApiModelPropertyAnnotation(entity, dtoProp));
-                pw.println("	" + metaMember.getAttributeDeclarationString());
-                printedEntityPropNames.add(propertyName);
+    private static TemplateScope createCodecFieldScope(CodecField field) {
+        BsonKind kind = field.getKind();
+        String local = field.getPropertyName() + "Value";
+        TemplateScope scope = new TemplateScope()
+                .put("name", field.getPropertyName())
+                .put("documentName", field.getDocumentName())
+                .put("local", local)
+                .put("getter", field.getGetter())
+                .put("setter", field.getSetter())
+                .put("type", TypeName.of(field.getType()))
+                .put("primitive", field.isPrimitive())
+                .put("scalar", field.getCollectionType() == null)
+                .put("array", field.isArray())
+                .put("map", field.isMap());
+        if (field.getCollectionType() == null) {
+            // primitives are written straight from the getter, they are never null
+            String value = field.isPrimitive() ? "value." + field.getGetter() + "()" : local;
+            return scope
+                    .put("write", (TypeName) imports -> kind.write(imports, imports.importType(field.getType()), value))
+                    .put("read", (TypeName) imports -> kind.read(imports, imports.importType(field.getType())))
+                    .put("fromObject", (TypeName) imports -> kind.fromObject(imports, imports.importType(field.getType()), "value"))
+                    .put("fromBsonValue", (TypeName) imports -> kind.fromBsonValue(imports, imports.importType(field.getType()), "value"));
+        }
+        String elementType = field.getElementType();
+        String value = field.isMap() ? "entry.getValue()" : "element";
+        return scope
+                .put("elementType", TypeName.of(elementType))
+                .put("collectionType", TypeName.of(field.getCollectionType()))
+                .put("write", (TypeName) imports -> kind.write(imports, imports.importType(elementType), value))
+                .put("read", (TypeName) imports -> kind.read(imports, imports.importType(elementType)))
+                .put("fromObject", (TypeName) imports -> kind.fromObject(imports, imports.importType(elementType), "element"))
+                .put("fromBsonValue", (TypeName) imports -> kind.fromBsonValue(imports, imports.importType(elementType), "element"));
+    }
+
+    /**
+     * Renders the provider of all codecs of this compilation.
+     *
+     * @param qualifiedName The name of the provider
+     * @param codecs        target class -> codec, in the order of registration
+     * @param context       The processing context
+     */
+    public static GeneratedFile generateCodecProvider(String qualifiedName, Map<String, String> codecs, Context context) {
+        List<TemplateScope> groups = new ArrayList<>();
+        List<TemplateScope> group = null;
+        for (Map.Entry<String, String> codec : codecs.entrySet()) {
+            if (group == null || group.size() == CODECS_PER_REGISTER_METHOD) {
+                group = new ArrayList<>(CODECS_PER_REGISTER_METHOD);
+                groups.add(new TemplateScope().put("index", groups.size()).put("codecs", group));
             }
+            group.add(new TemplateScope()
+                    .put("target", TypeName.of(codec.getKey()))
+                    .put("codec", TypeName.of(codec.getValue())));
+        }
+        String providerPackage = ImportContextImpl.qualifier(qualifiedName);
+        String content = render(
+                context.getTemplates().getCodecProvider(),
+                new TemplateScope()
+                        .put("generated", context.addGeneratedAnnotation())
+                        .put("processor", MongoModelEntityProcessor.class.getName())
+                        .put("generationDate", context.addGeneratedDate() ? context.getGenerationDate() : null)
+                        .put("className", ImportContextImpl.unqualify(qualifiedName))
+                        .put("capacity", codecs.size() * 4 / 3 + 1)
+                        .put("groups", groups),
+                new ImportContextImpl(providerPackage, context.getTypeReferences()),
+                providerPackage,
+                estimateLength(codecs.size())
+        );
+        return new GeneratedFile(qualifiedName, content);
+    }
+
+    private static GeneratedFile generateMetaModelIndex(EntitySnapshot entity) {
+        MetaModelIndex index = MetaModelIndex.of(entity, getMetaModelName(entity));
+        return GeneratedFile.resource(MetaModelIndex.resourceName(entity.getQualifiedName()), index.write());
+    }
 
-            printDtoExtraProperties(entity, dtoSpec, pw, context);
+    private static String getMetaModelName(EntitySnapshot entity) {
+        return getFullyQualifiedClassName(entity.getSimpleName(), toMetaPackage(entity.getPackageName()));
+    }
 
-            pw.println();
+    /**
+     * Rough size of a generated source with the given number of attributes, used to presize the output buffer.
+     */
+    private static int estimateLength(int attributeCount) {
+        return 1024 + attributeCount * 160;
+    }
 
-            printDtoConvertMethod(entity, dtoSpec, printedEntityPropNames, pw);
+    /**
+     * Writes the package and import statements followed by the rendered template.
+     *
+     * @param template       The compiled template of the body
+     * @param scope          The template variables
+     * @param imports        The (empty) imports of the generated source
+     * @param packageName    The package of the generated source
+     * @param expectedLength The expected length of the source
+     */
+    private static String render(Template template, TemplateScope scope, ImportContext imports,
+                                 String packageName, int expectedLength) {
+        // the body has to be visited first, since this will also update the required imports which need to
+        // be written out first
+        template.render(scope, imports, null);
+
+        StringBuilder sb = new StringBuilder(expectedLength);
+        sb.append("package ").append(packageName).append(";").append(LINE_SEPARATOR);
+        sb.append(LINE_SEPARATOR);
+        sb.append(imports.generateImports()).append(LINE_SEPARATOR);
+        template.render(scope, imports, sb);
+        sb.append(LINE_SEPARATOR);
+        return sb.toString();
+    }
 
-            pw.println("}");
-            return sw.getBuffer();
+    private static TemplateScope createMetaModelScope(EntitySnapshot entity, Context context) {
+        List<AttributeSnapshot> members = entity.getMembers();
+        List<TemplateScope> memberScopes = new ArrayList<>(members.size());
+        for (AttributeSnapshot member : members) {
+            memberScopes.add(new TemplateScope()
+                    .put("name", member.getPropertyName())
+                    .put("type", getAttributeType(member, false)));
         }
+        String superMetaModelName = entity.getMappedSuperMetaModelName();
+        return createFileScope(entity, context)
+                .put("className", entity.getSimpleName() + META_MODEL_CLASS_NAME_SUFFIX)
+                .put("superClass", superMetaModelName == null ? null : TypeName.of(superMetaModelName))
+                .put("members", memberScopes)
+                .put("attributes", context.generateQueryAttributes() ? createQueryAttributeScopes(entity) : null);
     }
 
-    private static void printDtoExtraProperties(MetaEntity entity, DtoSpec dtoSpec, PrintWriter pw, Context context) {
-        List<DtoProp> extraProperties = dtoSpec.getExtraProperties();
-        if (extraProperties == null || extraProperties.isEmpty()) {
-            return;
+    /**
+     * One typed attribute per member whose field type is supported, named after the member in upper underscore case.
+     * Maps are skipped, their values are queried by the path of a key rather than as a whole.
+     */
+    private static List<TemplateScope> createQueryAttributeScopes(EntitySnapshot entity) {
+        Map<String, CodecField> fieldMap = new HashMap<>();
+        for (CodecField field : entity.getCodecFields()) {
+            fieldMap.put(field.getPropertyName(), field);
+        }
+        Set<String> names = new HashSet<>();
+        for (AttributeSnapshot member : entity.getMembers()) {
+            names.add(member.getPropertyName());
         }
-        pw.println("	//extra properties");
-        for (DtoProp extra : extraProperties) {
-            List<String> typeImports = extra.getTypeImports();
-            if (typeImports.isEmpty()) {
+        List<TemplateScope> attributes = new ArrayList<>();
+        for (AttributeSnapshot member : entity.getMembers()) {
+            CodecField field = fieldMap.get(member.getPropertyName());
+            String name = StringUtil.getUpperUnderscoreCaseFromLowerCamelCase(member.getPropertyName());
+            // a property named like the constant of another one, e.g. createdAt and created_at
+            if (field == null || !field.isSupported() || field.isMap() || !names.add(name)) {
                 continue;
             }
+            BsonKind kind = field.getKind();
+            String type = field.isArray() ? field.getElementType() : field.getBoxedType();
+            String documentName = field.getDocumentName();
+            attributes.add(new TemplateScope()
+                    .put("name", name)
+                    .put("attributeType", TypeName.of(field.isArray() ? COLLECTION_ATTRIBUTE : ATTRIBUTE))
+                    .put("type", TypeName.of(type))
+                    .put("arguments", (TypeName) imports -> {
+                        String converter = kind.toQueryValue(imports, imports.importType(type));
+                        return "\"" + documentName + "\"" + (converter == null ? "" : ", " + converter);
+                    }));
+        }
+        return attributes;
+    }
 
-            printConstraintAnnotation(entity, extra, pw);
-            pw.println(writeApiModelPropertyAnnotation(entity, extra));
+    private static TemplateScope createDtoScope(EntitySnapshot entity, DtoSpec dtoSpec, Context context) {
+        Map<String, DtoProp> propertyMap = dtoSpec.getPropertyMap();
+        List<TemplateScope> properties = new ArrayList<>(propertyMap.size());
 
-            String typeDeclare = extra.getTypeDeclare();
-            if (StringUtil.isBlank(typeDeclare)) {
-                String typeImport = typeImports.get(0);
-                typeDeclare = context.importDirtType(entity, typeImport);
-            } else {
-                for (String typeImport : typeImports) {
-                    context.importDirtType(entity, typeImport);
-                }
+        List<AttributeSnapshot> superMembers = entity.getSuperMembers();
+        for (AttributeSnapshot metaMember : superMembers) {
+            DtoProp dtoProp = propertyMap.get(metaMember.getPropertyName());
+            if (dtoProp != null && "id".equals(metaMember.getPropertyName())) {
+                properties.add(createDtoPropertyScope(metaMember, dtoProp, true));
+                break;
             }
-            pw.println("	private " + typeDeclare + " " + extra.getPropName() + ";");
         }
-    }
-
-    private static void printDtoConvertMethod(
-            MetaEntity entity,
-            DtoSpec dtoSpec,
-            List<String> printedEntityPropNames,
-            PrintWriter pw
-    ) {
-        Type type = dtoSpec.getType();
-        //DTO, VO 与实体互相转换, 需要额外导入实体类
-        if (type == Type.DTO) {
-            String entityClassName = entity.importType(entity.getQualifiedName());
-            pw.println("	public " + entityClassName + " toDO() {");
-            pw.println("		" + entityClassName + " one = new " + entityClassName + "();");
-            for (String propName : printedEntityPropNames) {
-                pw.println("		one.set" + StringUtil.firstUpperCase(propName) + "(" + propName + ");");
+        for (AttributeSnapshot metaMember : entity.getMembers()) {
+            DtoProp dtoProp = propertyMap.get(metaMember.getPropertyName());
+            if (dtoProp != null) {
+                properties.add(createDtoPropertyScope(metaMember, dtoProp, false));
             }
-            pw.println("		return one;");
-            pw.println("	}");
-            pw.println();
-
-        } else if (type == Type.VO) {
-            String entityClassName = entity.importType(entity.getQualifiedName());
-            String dtoClassName = getDtoClassSimpleName(entity, dtoSpec);
-            pw.println("	public static " + dtoClassName + " toVO(" + entityClassName + " po) {");
-            pw.println("		" + dtoClassName + " one = new " + dtoClassName + "();");
-            for (String propName : printedEntityPropNames) {
-                pw.println("		one." + propName + " = po.get" + StringUtil.firstUpperCase(propName) + "();");
+        }
+        for (AttributeSnapshot metaMember : superMembers) {
+            DtoProp dtoProp = propertyMap.get(metaMember.getPropertyName());
+            if (dtoProp != null && !"id".equals(metaMember.getPropertyName())) {
+                properties.add(createDtoPropertyScope(metaMember, dtoProp, true));
             }
-            pw.println("		return one;");
-            pw.println("	}");
-            pw.println();
-
-            pw.println("	public static String[] projects() {");
-            pw.print("		return new String[]{");
-            int size = printedEntityPropNames.size();
-            for (int i = 0; i < size; i++) {
-                pw.print("\"" + printedEntityPropNames.get(i) + "\"");
-                if (i < size - 1) {
-                    pw.print(", ");
+        }
+        if (!properties.isEmpty()) {
+            properties.get(properties.size() - 1).put("last", true);
+        }
+
+        List<DtoProp> extraProperties = dtoSpec.getExtraProperties();
+        List<TemplateScope> extraScopes = new ArrayList<>();
+        if (extraProperties != null) {
+            for (DtoProp extra : extraProperties) {
+                if (!extra.getTypeImports().isEmpty()) {
+                    extraScopes.add(createExtraPropertyScope(extra));
                 }
             }
-            pw.println("};");
-            pw.println("	}");
-            pw.println();
         }
-//        else if (type == DtoType.Query) {
-//        }
-    }
 
-    private static List<MetaAttribute> getSuperClassMembersForMerge(MetaEntity entity, Context context) {
-        List<MetaAttribute> members = Collections.emptyList();
-        String superClassName = findMappedSuperClass(entity, context);
-        if (superClassName != null) {
-            MetaEntity superEntity = context.getMetaEntity(superClassName);
-            if (superEntity != null) {
-                members = superEntity.getMembers();
+        String descr = dtoSpec.getDescr();
+        if (StringUtil.isBlank(descr)) {
+            descr = entity.getSimpleName();
+        }
+        Type type = dtoSpec.getType();
+        List<CodecField> decoderFields = null;
+        List<TemplateScope> projection = null;
+        boolean projectsId = false;
+        if (type == Type.VO && context.generateVoDecoders()) {
+            decoderFields = getDecoderFields(entity, dtoSpec);
+        }
+        if (type == Type.VO && context.generateVoProjections()) {
+            List<String> documentNames = getProjectedDocumentNames(entity, dtoSpec);
+            projectsId = documentNames.contains("_id");
+            projection = new ArrayList<>(documentNames.size());
+            for (String documentName : documentNames) {
+                projection.add(new TemplateScope().put("documentName", documentName));
+            }
+            if (!projection.isEmpty()) {
+                projection.get(projection.size() - 1).put("last", true);
             }
         }
-        return members;
+        return createFileScope(entity, context)
+                .put("className", getDtoClassSimpleName(entity, dtoSpec))
+                .put("descr", descr)
+                .put("dtoType", type.name())
+                .put("dto", type == Type.DTO)
+                .put("vo", type == Type.VO)
+                .put("qo", type == Type.QO)
+                .put("equalsAndHashCode", dtoSpec.isOverrideEqualsAndHashCode())
+                .put("properties", properties)
+                .put("hasExtraProperties", extraProperties != null && !extraProperties.isEmpty())
+                .put("extraProperties", extraScopes)
+                .put("queryProjection", projection != null)
+                .put("projection", projection)
+                .put("projectsId", projectsId)
+                .put("decoder", decoderFields != null)
+                .put("decoderFields", decoderFields == null ? null : createCodecFieldScopes(decoderFields));
     }
 
-    //导入属性的（集合泛型）类型
-    private static void importSuperMemberType(MetaEntity entity, MetaAttribute member, Context context) {
-        String outter = member.getTypeDeclaration();
-        String inner = member.getMetaType();
+    /**
+     * The variables shared by all templates.
+     */
+    private static TemplateScope createFileScope(EntitySnapshot entity, Context context) {
+        return new TemplateScope()
+                .put("generated", context.addGeneratedAnnotation())
+                .put("processor", MongoModelEntityProcessor.class.getName())
+                .put("generationDate", context.addGeneratedDate() ? context.getGenerationDate() : null)
+                .put("simpleName", entity.getSimpleName())
+                .put("entity", TypeName.of(entity.getQualifiedName()));
+    }
 
-        context.importDirtType(entity, outter);
-        entity.importType(outter);
-        if (member instanceof MetaCollection) {
-            context.importDirtType(entity, inner);
-        }
+    private static TemplateScope createDtoPropertyScope(AttributeSnapshot member, DtoProp dtoProp, boolean superMember) {
+        String propertyName = member.getPropertyName();
+        return new TemplateScope()
+                .put("name", propertyName)
+                .put("capitalizedName", StringUtil.firstUpperCase(propertyName))
+                .put("type", getAttributeType(member, superMember))
+                .put("descr", getPropertyDescr(dtoProp))
+                .put("hash", dtoProp.isHash())
+                .put("constraints", createConstraintScopes(dtoProp));
     }
 
-    private static void printClassDeclaration(MetaEntity entity, PrintWriter pw, Context context) {
-        pw.print("public abstract class " + entity.getSimpleName() + META_MODEL_CLASS_NAME_SUFFIX);
-        String superClassName = findMappedSuperClass(entity, context);
-        if (superClassName != null) {
-            pw.print(" extends " + entity.importType(toMetaPackage(superClassName) + META_MODEL_CLASS_NAME_SUFFIX));
+    private static TemplateScope createExtraPropertyScope(DtoProp extra) {
+        List<String> typeImports = extra.getTypeImports();
+        String typeDeclare = extra.getTypeDeclare();
+        TypeName type;
+        if (StringUtil.isBlank(typeDeclare)) {
+            type = TypeName.of(typeImports.get(0));
+        } else {
+            type = imports -> {
+                for (String typeImport : typeImports) {
+                    imports.importType(typeImport);
+                }
+                return typeDeclare;
+            };
         }
-        pw.println(" {");
-        pw.println();
+        return new TemplateScope()
+                .put("name", extra.getPropName())
+                .put("type", type)
+                .put("descr", getPropertyDescr(extra))
+                .put("constraints", createConstraintScopes(extra));
     }
 
-    private static void printClassDeclarationDto(MetaEntity entity, PrintWriter pw, DtoSpec dtoSpec) {
-        pw.print("public class " + getDtoClassSimpleName(entity, dtoSpec));
-        pw.println(" {");
-        pw.println();
+    private static String getPropertyDescr(DtoProp dtoProp) {
+        String descr = dtoProp.getDescr();
+        return StringUtil.isBlank(descr) ? dtoProp.getPropName() : descr;
     }
 
-    public static Element findMappedSuperElement(MetaEntity entity, Context context) {
-        TypeMirror superClass = entity.getTypeElement().getSuperclass();
-        //superclass of Object is of NoType which returns some other kind
-        while (superClass.getKind() == TypeKind.DECLARED) {
-            //F..king Ch...t Have those people used their horrible APIs even once?
-            final Element superClassElement = ((DeclaredType) superClass).asElement();
-            if (extendsSuperMetaModel(superClassElement, entity.isMetaComplete(), context)) {
-                return superClassElement;
-            }
-            superClass = ((TypeElement) superClassElement).getSuperclass();
+    private static List<TemplateScope> createConstraintScopes(DtoProp property) {
+        List<String[]> rules = property.getRules();
+        if (rules.isEmpty()) {
+            return Collections.emptyList();
         }
-        return null;
-    }
-
-    private static String findMappedSuperClass(MetaEntity entity, Context context) {
-        TypeMirror superClass = entity.getTypeElement().getSuperclass();
-        //superclass of Object is of NoType which returns some other kind
-        while (superClass.getKind() == TypeKind.DECLARED) {
-            //F..king Ch...t Have those people used their horrible APIs even once?
-            final Element superClassElement = ((DeclaredType) superClass).asElement();
-            String superClassName = ((TypeElement) superClassElement).getQualifiedName().toString();
-            if (extendsSuperMetaModel(superClassElement, entity.isMetaComplete(), context)) {
-                return superClassName;
+        List<TemplateScope> constraints = new ArrayList<>(rules.size());
+        Set<String> ruleSet = new HashSet<>();
+        for (String[] rule : rules) {
+            //注解去重
+            String type = Rule_.getType(rule);
+            if (!ruleSet.add(type)) {
+                continue;
             }
-            superClass = ((TypeElement) superClassElement).getSuperclass();
+            TypeName annotation = imports -> Rule_.getConstraintAnnotationDeclareString(imports.importType(type), rule);
+            constraints.add(new TemplateScope().put("annotation", annotation));
         }
-        return null;
+        return constraints;
     }
 
     /**
-     * Checks whether this metamodel class needs to extend another metamodel class.
-     * This methods checks whether the processor has generated a metamodel class for the super class, but it also
-     * allows for the possibility that the metamodel class was generated in a previous compilation (eg it could be
-     * part of a separate jar. See also METAGEN-35).
-     *
-     * @param superClassElement  the super class element
-     * @param entityMetaComplete flag indicating if the entity for which the metamodel should be generarted is metamodel
-     *                           complete. If so we cannot use reflection to decide whether we have to add the extend clause
-     * @param context            the execution context
-     * @return {@code true} in case there is super class meta model to extend from {@code false} otherwise.
+     * @param superMember members of the super class additionally import their (collection) types
      */
-    private static boolean extendsSuperMetaModel(Element superClassElement, boolean entityMetaComplete, Context context) {
-        // if we processed the superclass in the same run we definitely need to extend
-        String superClassName = ((TypeElement) superClassElement).getQualifiedName().toString();
-        if (context.containsMetaEntity(superClassName)
-                || context.containsMetaEmbeddable(superClassName)) {
-            return true;
+    private static TypeName getAttributeType(AttributeSnapshot attribute, boolean superMember) {
+        return imports -> {
+            if (superMember) {
+                importSuperMemberType(imports, attribute);
+            }
+            String declarationType = imports.importType(attribute.getTypeDeclaration());
+            if (attribute.isCollection()) {
+                // the element type is imported first, the declared type imports the collection and its type arguments
+                declarationType = imports.importType(attribute.getDeclaredType());
+            }
+            return declarationType;
+        };
+    }
+
+    private static List<AttributeSnapshot> getSuperClassMembersForMerge(String superClassName, Context context) {
+        List<AttributeSnapshot> members = Collections.emptyList();
+        if (superClassName != null) {
+            MetaEntity superEntity = context.getMetaEntity(superClassName);
+            if (superEntity == null) {
+                // the super class is not part of this compilation (eg another module or incremental compilation),
+                // its index lists the members without walking the class file
+                MetaModelIndex index = context.getMetaModelIndex(superClassName);
+                if (index != null) {
+                    return index.getMembers();
+                }
+                superEntity = context.getExternalMetaEntity(superClassName);
+            }
+            if (superEntity != null) {
+                members = superEntity.getMemberSnapshots();
+            }
         }
+        return members;
+    }
 
-        // to allow for the case that the metamodel class for the super entity is for example contained in another
-        // jar file we use reflection. However, we need to consider the fact that there is xml configuration
-        // and annotations should be ignored
-        return !entityMetaComplete && (TypeUtils.containsAnnotation(superClassElement, Constants.ENTITY)
-                || TypeUtils.containsAnnotation(superClassElement, Constants.MAPPED_SUPERCLASS));
+    //导入属性的（集合泛型）类型
+    private static void importSuperMemberType(ImportContext imports, AttributeSnapshot member) {
+        String outter = member.getTypeDeclaration();
+        String inner = member.getMetaType();
+
+        imports.importType(outter);
+        if (member.isCollection()) {
+            imports.importType(inner);
+        }
     }
 
-    private static String getFullyQualifiedClassName(MetaEntity entity, String modelPackage) {
+    private static String getFullyQualifiedClassName(String simpleName, String modelPackage) {
         String fullyQualifiedClassName = "";
         if (!modelPackage.isEmpty()) {
             fullyQualifiedClassName = modelPackage + ".";
         }
-        fullyQualifiedClassName = fullyQualifiedClassName + entity.getSimpleName();
+        fullyQualifiedClassName = fullyQualifiedClassName + simpleName;
         fullyQualifiedClassName += META_MODEL_CLASS_NAME_SUFFIX;
         return fullyQualifiedClassName;
     }
 
-    private static String getFullyQualifiedClassNameDto(MetaEntity entity, String dtoPackage, DtoSpec dtoSpec) {
+    private static String getFullyQualifiedClassNameDto(EntitySnapshot entity, String dtoPackage, DtoSpec dtoSpec) {
         return dtoPackage + "." + getDtoClassSimpleName(entity, dtoSpec);
     }
 
@@ -452,6 +797,16 @@ public final class ClassWriter {
         }
     }
 
+    private static String toCodecPackage(String modelPackage) {
+        if (modelPackage.endsWith(".entity")) {
+            return modelPackage.replace(".entity", ".codec");
+        } else if (modelPackage.contains(".entity.")) {
+            return modelPackage.replace(".entity.", ".codec.");
+        } else {
+            throw new RuntimeException("entity package not found");
+        }
+    }
+
     private static String getDtoPackage(DtoSpec dtoSpec, String modelPackage) {
         String packagesAfterEntityPackage;
         String typePackage = dtoSpec.getType().name().toLowerCase();
@@ -473,7 +828,7 @@ public final class ClassWriter {
         }
     }
 
-    private static String getDtoClassSimpleName(MetaEntity entity, DtoSpec dtoSpec) {
+    private static String getDtoClassSimpleName(EntitySnapshot entity, DtoSpec dtoSpec) {
         return getDtoNamePrefix(dtoSpec) + entity.getSimpleName() + dtoSpec.getType();
     }
 
@@ -487,71 +842,8 @@ public final class ClassWriter {
     }
     //endregion
 
-    private static String writeGeneratedAnnotation(MetaEntity entity, Context context) {
-        StringBuilder generatedAnnotation = new StringBuilder();
-        generatedAnnotation.append("@")
-                .append(entity.importType("javax.annotation.Generated"))
-                .append("(value = \"")
-                .append(MongoModelEntityProcessor.class.getName());
-        if (context.addGeneratedDate()) {
-            generatedAnnotation.append("\", date = \"")
-                    .append(SIMPLE_DATE_FORMAT.get().format(new Date()))
-                    .append("\")");
-        } else {
-            generatedAnnotation.append("\")");
-        }
-        return generatedAnnotation.toString();
-    }
-
 //    private static String writeStaticMetaModelAnnotation(MetaEntity entity) {
 //        return "@" + entity.importType("javax.persistence.metamodel.StaticMetamodel") + "(" + entity.getSimpleName() + ".class)";
 //    }
 
-    private static void printEqualsAndHashCodeAnnotation(MetaEntity entity, DtoSpec dtoSpec, PrintWriter pw) {
-        if (dtoSpec.isOverrideEqualsAndHashCode()) {
-            pw.println("@" + entity.importType("lombok.EqualsAndHashCode") + "(doNotUseGetters = true, onlyExplicitlyIncluded = true)");
-        }
-    }
-
-    private static String writeGetterSetterAnnotation(MetaEntity entity) {
-        return "@" + entity.importType("lombok.Getter") + "\n@" + entity.importType("lombok.Setter");
-    }
-
-    private static String writeApiModelAnnotation(MetaEntity entity, DtoSpec dtoSpec) {
-        String descr = dtoSpec.getDescr();
-        if (StringUtil.isBlank(descr)) {
-            descr = entity.getSimpleName();
-        }
-        return "@" + entity.importType("io.swagger.annotations.ApiModel")
-                + "(\"" + descr + "\")";
-    }
-
-    private static String writeApiModelPropertyAnnotation(MetaEntity entity, DtoProp dtoProp) {
-        String descr = dtoProp.getDescr();
-        if (StringUtil.isBlank(descr)) {
-            descr = dtoProp.getPropName();
-        }
-        return "	@" + entity.importType("io.swagger.annotations.ApiModelProperty")
-                + "(\"" + descr + "\")";
-    }
-
-    private static void printConstraintAnnotation(MetaEntity entity, DtoProp property, PrintWriter pw) {
-        Set<String> ruleSet = new HashSet<>();
-        for (Rule rule : property.getRules()) {
-            //注解去重
-            String type = Rule_.getType(rule);
-            if (ruleSet.contains(type)) {
-                continue;
-            }
-            ruleSet.add(type);
-            pw.println("	" + Rule_.getConstraintAnnotationDeclareString(entity.importType(type), rule));
-        }
-    }
-
-    private static void printEqualsAndHashCodeIncludeAnnotation(DtoProp property, PrintWriter pw) {
-        if (property.isHash()) {
-            pw.println("	@EqualsAndHashCode.Include");
-        }
-    }
-
 }
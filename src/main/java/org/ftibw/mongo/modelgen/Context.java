@@ -6,17 +6,38 @@
  */
 package org.ftibw.mongo.modelgen;
 
+import org.ftibw.mongo.modelgen.annotation.AnnotationMetaEntity;
 import org.ftibw.mongo.modelgen.model.MetaEntity;
+import org.ftibw.mongo.modelgen.template.Templates;
+import org.ftibw.mongo.modelgen.util.ClassNameFilter;
+import org.ftibw.mongo.modelgen.util.DtoSpec;
+import org.ftibw.mongo.modelgen.util.GenerateMode;
+import org.ftibw.mongo.modelgen.util.GenerationCache;
+import org.ftibw.mongo.modelgen.util.MetaModelIndex;
+import org.ftibw.mongo.modelgen.util.TypeReferences;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 /**
  * @author Max Andersen
@@ -25,27 +46,98 @@ import java.util.Map;
  */
 public final class Context {
     /**
-     * Used for keeping track of parsed entities and mapped super classes (xml + annotations).
+     * Used for keeping track of parsed entities and mapped super classes (xml + annotations). Kept in discovery order,
+     * so that entities are always processed in the same order.
      */
-    private final Map<String, MetaEntity> metaEntities = new HashMap<String, MetaEntity>();
+    private final Map<String, MetaEntity> metaEntities = new LinkedHashMap<String, MetaEntity>();
 
     /**
      * Used for keeping track of parsed embeddable entities. These entities have to be kept separate since
      * they are lazily initialized.
      */
-    private final Map<String, MetaEntity> metaEmbeddables = new HashMap<String, MetaEntity>();
+    private final Map<String, MetaEntity> metaEmbeddables = new LinkedHashMap<String, MetaEntity>();
+
+    /**
+     * Used for keeping track of mapped super classes which are not part of the current compilation, eg when only the
+     * subclass is recompiled incrementally. Their members are needed for merging, but no meta model is generated.
+     */
+    private final Map<String, MetaEntity> externalMetaEntities = new HashMap<String, MetaEntity>();
+
+    /**
+     * Meta model indexes of types compiled in other modules, read from the class path on first use. A missing index
+     * is kept as {@link Optional#empty()}, so that every type is looked up only once.
+     */
+    private final Map<String, Optional<MetaModelIndex>> metaModelIndexes = new HashMap<String, Optional<MetaModelIndex>>();
+
+    /**
+     * The dto specifications of entities which still have to be generated. They are added when the entity is
+     * processed in a round and released as soon as its sources are written, so nothing outlives the compilation.
+     */
+    private final Map<String, List<DtoSpec>> dtoSpecifications = new HashMap<String, List<DtoSpec>>();
+    private int retainedDtoSpecs;
 
     private final ProcessingEnvironment pe;
     private final boolean logDebug;
 
+    private final TypeHierarchy typeHierarchy = new TypeHierarchy(this);
+
+    private final ProcessingMetrics metrics = new ProcessingMetrics();
+
     private boolean addGeneratedAnnotation = true;
     private boolean addGenerationDate;
 
+    /**
+     * The formatted date of the generated annotation, shared by all files of a compilation.
+     */
+    private String generationDate;
+    private boolean reproducibleGenerationDate;
+    private boolean verifyDeterminism;
+
+    /**
+     * Directories the generated files are written to directly instead of through the Filer, {@code null} if not
+     * configured. Files written this way are not compiled in the current compilation.
+     */
+    private File outputDirectory;
+    private File resourceOutputDirectory;
+
+    /**
+     * {@code null} generates both meta models and dto models.
+     */
+    private GenerateMode generateMode;
+    private ClassNameFilter classNameFilter = ClassNameFilter.of(null, null);
+    /**
+     * Annotated classes of this compilation which are skipped by the class name filter.
+     */
+    private final Set<String> excludedEntities = new HashSet<String>();
+    private boolean generateCodecs;
+    private boolean generateVoDecoders;
+    private boolean generateVoProjections;
+    private boolean generateLazyVos;
+    private boolean generateQueryAttributes;
+
+    /**
+     * Target class -> generated codec of all entities and vos of this compilation, registered in the codec provider.
+     */
+    private final Map<String, String> codecs = new TreeMap<String, String>();
+
+    /**
+     * The compiled templates of the generated sources, the built-in ones unless overridden on the processor path.
+     */
+    private Templates templates = Templates.defaults();
+
+    /**
+     * Type declarations parsed by the import contexts, shared by all entities and render threads.
+     */
+    private final TypeReferences typeReferences = new TypeReferences();
+
+    /**
+     * Persistent cache of generated sources, {@code null} if not configured.
+     */
+    private GenerationCache generationCache;
+
     // keep track of all classes for which model have been generated
     private final Collection<String> generatedModelClasses = new HashSet<String>();
 
-    private final Collection<String> dirtImports = new HashSet<>();
-
     public Context(ProcessingEnvironment pe) {
         this.pe = pe;
         logDebug = Boolean.parseBoolean(pe.getOptions().get(MongoModelEntityProcessor.DEBUG_OPTION));
@@ -71,6 +163,177 @@ public final class Context {
         this.addGenerationDate = addGenerationDate;
     }
 
+    public String getGenerationDate() {
+        return generationDate;
+    }
+
+    /**
+     * @return {@code true} if the generation date is fixed by configuration rather than taken from the clock
+     */
+    public boolean isReproducibleGenerationDate() {
+        return reproducibleGenerationDate;
+    }
+
+    public void setGenerationDate(String generationDate, boolean reproducible) {
+        this.generationDate = generationDate;
+        this.reproducibleGenerationDate = reproducible;
+    }
+
+    public boolean verifyDeterminism() {
+        return verifyDeterminism;
+    }
+
+    public void setVerifyDeterminism(boolean verifyDeterminism) {
+        this.verifyDeterminism = verifyDeterminism;
+    }
+
+    public GenerateMode getGenerateMode() {
+        return generateMode;
+    }
+
+    public void setGenerateMode(GenerateMode generateMode) {
+        this.generateMode = generateMode;
+    }
+
+    public boolean generateMetaModels() {
+        return generateMode == null || generateMode == GenerateMode.metaModel;
+    }
+
+    /**
+     * @return {@code false} if only meta models are generated, the dto specifications are not even parsed then
+     */
+    public boolean generateDtoModels() {
+        return generateMode == null || generateMode == GenerateMode.dtoModel;
+    }
+
+    public boolean generateCodecs() {
+        return generateCodecs;
+    }
+
+    public void setGenerateCodecs(boolean generateCodecs) {
+        this.generateCodecs = generateCodecs;
+    }
+
+    /**
+     * @return whether the vos can decode themselves from documents, the lazy vos decode through them, see
+     * {@link #generateLazyVos()}
+     */
+    public boolean generateVoDecoders() {
+        return (generateVoDecoders || generateLazyVos) && generateDtoModels();
+    }
+
+    public void setGenerateVoDecoders(boolean generateVoDecoders) {
+        this.generateVoDecoders = generateVoDecoders;
+    }
+
+    /**
+     * @return whether the vos contain their projection, see {@link #generateDtoModels()}
+     */
+    public boolean generateVoProjections() {
+        return generateVoProjections && generateDtoModels();
+    }
+
+    public void setGenerateVoProjections(boolean generateVoProjections) {
+        this.generateVoProjections = generateVoProjections;
+    }
+
+    /**
+     * @return whether a lazy variant is generated for every vo which can be decoded, see {@link #generateDtoModels()}
+     */
+    public boolean generateLazyVos() {
+        return generateLazyVos && generateDtoModels();
+    }
+
+    public void setGenerateLazyVos(boolean generateLazyVos) {
+        this.generateLazyVos = generateLazyVos;
+    }
+
+    /**
+     * @return whether the meta models contain typed query attributes, see {@link #generateMetaModels()}
+     */
+    public boolean generateQueryAttributes() {
+        return generateQueryAttributes && generateMetaModels();
+    }
+
+    public void setGenerateQueryAttributes(boolean generateQueryAttributes) {
+        this.generateQueryAttributes = generateQueryAttributes;
+    }
+
+    void registerCodec(String target, String codec) {
+        codecs.put(target, codec);
+    }
+
+    /**
+     * @return target class -> codec, sorted by the target class
+     */
+    Map<String, String> getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * @return whether the given entity passes the include and exclude patterns, excluded entities are not processed
+     */
+    public boolean isIncluded(String fqcn) {
+        return classNameFilter.isIncluded(fqcn);
+    }
+
+    public void addExcludedEntity(String fqcn) {
+        excludedEntities.add(fqcn);
+    }
+
+    /**
+     * @return whether the given class is part of this compilation but skipped by the class name filter, so its meta
+     * model is never generated
+     */
+    public boolean isExcludedEntity(String fqcn) {
+        return excludedEntities.contains(fqcn);
+    }
+
+    public void setClassNameFilter(ClassNameFilter classNameFilter) {
+        this.classNameFilter = classNameFilter;
+    }
+
+    public TypeReferences getTypeReferences() {
+        return typeReferences;
+    }
+
+    public Templates getTemplates() {
+        return templates;
+    }
+
+    public void setTemplates(Templates templates) {
+        this.templates = templates;
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public File getResourceOutputDirectory() {
+        return resourceOutputDirectory;
+    }
+
+    public void setOutputDirectories(File outputDirectory, File resourceOutputDirectory) {
+        this.outputDirectory = outputDirectory;
+        this.resourceOutputDirectory = resourceOutputDirectory;
+    }
+
+    public GenerationCache getGenerationCache() {
+        return generationCache;
+    }
+
+    public void setGenerationCache(GenerationCache generationCache) {
+        this.generationCache = generationCache;
+    }
+
+    public TypeHierarchy getTypeHierarchy() {
+        return typeHierarchy;
+    }
+
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+
     public Elements getElementUtils() {
         return pe.getElementUtils();
     }
@@ -111,6 +374,72 @@ public final class Context {
         return metaEmbeddables.values();
     }
 
+    public void putDtoSpecifications(String fqcn, List<DtoSpec> dtoSpecs) {
+        List<DtoSpec> previous = dtoSpecifications.put(fqcn, dtoSpecs);
+        retainedDtoSpecs += dtoSpecs.size() - (previous == null ? 0 : previous.size());
+        metrics.add(ProcessingMetrics.Counter.DTO_SPECIFICATIONS, dtoSpecs.size());
+        metrics.max(ProcessingMetrics.Gauge.RETAINED_DTO_SPECIFICATIONS_PEAK, retainedDtoSpecs);
+    }
+
+    public List<DtoSpec> getDtoSpecifications(String fqcn) {
+        return dtoSpecifications.get(fqcn);
+    }
+
+    public void releaseDtoSpecifications(String fqcn) {
+        List<DtoSpec> released = dtoSpecifications.remove(fqcn);
+        if (released != null) {
+            retainedDtoSpecs -= released.size();
+        }
+    }
+
+    /**
+     * Drops the specifications of entities which were never generated, eg because their super class was missing.
+     */
+    public void clearDtoSpecifications() {
+        metrics.set(ProcessingMetrics.Gauge.RETAINED_DTO_SPECIFICATIONS_AT_END, retainedDtoSpecs);
+        dtoSpecifications.clear();
+        retainedDtoSpecs = 0;
+    }
+
+    public MetaEntity getExternalMetaEntity(String fqcn) {
+        MetaEntity metaEntity = externalMetaEntities.get(fqcn);
+        if (metaEntity == null) {
+            TypeElement element = getTypeElementForFullyQualifiedName(fqcn);
+            if (element == null) {
+                return null;
+            }
+            metaEntity = new AnnotationMetaEntity(element, this, false);
+            externalMetaEntities.put(fqcn, metaEntity);
+        }
+        return metaEntity;
+    }
+
+    /**
+     * @return the index written along with the meta model of the given type in a previous compilation, eg of a shared
+     * module, {@code null} if there is none on the class path
+     */
+    public MetaModelIndex getMetaModelIndex(String fqcn) {
+        Optional<MetaModelIndex> index = metaModelIndexes.get(fqcn);
+        if (index == null) {
+            index = Optional.ofNullable(readMetaModelIndex(fqcn));
+            metaModelIndexes.put(fqcn, index);
+        }
+        return index.orElse(null);
+    }
+
+    private MetaModelIndex readMetaModelIndex(String fqcn) {
+        try {
+            FileObject fo = pe.getFiler().getResource(StandardLocation.CLASS_PATH, "", MetaModelIndex.resourceName(fqcn));
+            try (Reader reader = new InputStreamReader(fo.openInputStream(), StandardCharsets.UTF_8)) {
+                return MetaModelIndex.read(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no index (FileNotFoundException) or an unreadable one, the class file is used instead
+            logMessage(Diagnostic.Kind.OTHER, () -> "No usable meta model index for " + fqcn + ": " + e);
+            return null;
+        }
+    }
+
     public TypeElement getTypeElementForFullyQualifiedName(String fqcn) {
         Elements elementUtils = pe.getElementUtils();
         return elementUtils.getTypeElement(fqcn);
@@ -131,16 +460,14 @@ public final class Context {
         pe.getMessager().printMessage(type, message);
     }
 
-    public void clearDirtImports(MetaEntity entity) {
-        entity.clearImports(dirtImports);
-        dirtImports.clear();
-    }
-
-    public String importDirtType(MetaEntity entity, String typeImport) {
-        if (!entity.getImports().contains(typeImport)) {
-            dirtImports.add(typeImport);
+    /**
+     * Like {@link #logMessage(Diagnostic.Kind, String)}, but the message is only built if it is actually logged.
+     */
+    public void logMessage(Diagnostic.Kind type, Supplier<String> message) {
+        if (!logDebug && type.equals(Diagnostic.Kind.OTHER)) {
+            return;
         }
-        return entity.importType(typeImport);
+        pe.getMessager().printMessage(type, message.get());
     }
 
 }
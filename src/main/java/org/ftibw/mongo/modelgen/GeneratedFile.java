@@ -0,0 +1,75 @@
+package org.ftibw.mongo.modelgen;
+
+import java.io.Serializable;
+
+/**
+ * 一个元模型或dto类的生成源码，或者随元模型生成的资源文件（见{@link #resource}），
+ * 或者注册到codec provider的Codec（见{@link #codec}）
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 10:05
+ */
+public final class GeneratedFile implements Serializable {
+    private static final long serialVersionUID = 3L;
+
+    private final String qualifiedName;
+    private final String content;
+    private final boolean resource;
+    private final String codecTarget;
+
+    public GeneratedFile(String qualifiedName, String content) {
+        this(qualifiedName, content, false, null);
+    }
+
+    private GeneratedFile(String qualifiedName, String content, boolean resource, String codecTarget) {
+        this.qualifiedName = qualifiedName;
+        this.content = content;
+        this.resource = resource;
+        this.codecTarget = codecTarget;
+    }
+
+    /**
+     * @param relativeName 相对于class输出目录的路径
+     */
+    public static GeneratedFile resource(String relativeName, String content) {
+        return new GeneratedFile(relativeName, content, true, null);
+    }
+
+    /**
+     * @param target 编解码的实体或vo的全限定名
+     */
+    public static GeneratedFile codec(String qualifiedName, String content, String target) {
+        return new GeneratedFile(qualifiedName, content, false, target);
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @return 是否资源文件，此时{@link #getQualifiedName()}是相对于class输出目录的路径
+     */
+    public boolean isResource() {
+        return resource;
+    }
+
+    public boolean isCodec() {
+        return codecTarget != null;
+    }
+
+    /**
+     * @return 编解码的实体或vo的全限定名，不是Codec时为null
+     */
+    public String getCodecTarget() {
+        return codecTarget;
+    }
+
+    @Override
+    public String toString() {
+        return "GeneratedFile{qualifiedName='" + qualifiedName + "'}";
+    }
+}
@@ -7,6 +7,8 @@
 package org.ftibw.mongo.modelgen;
 
 import org.ftibw.mongo.modelgen.model.ImportContext;
+import org.ftibw.mongo.modelgen.util.TypeReference;
+import org.ftibw.mongo.modelgen.util.TypeReferences;
 
 import java.util.*;
 
@@ -41,38 +43,48 @@ public class ImportContextImpl implements ImportContext {
 
     }
 
+    private final TypeReferences typeReferences;
+
     public ImportContextImpl(String basePackage) {
+        this(basePackage, new TypeReferences());
+    }
+
+    /**
+     * @param basePackage    The package of the generated source
+     * @param typeReferences The parsed type references shared by all import contexts of a processor run
+     */
+    public ImportContextImpl(String basePackage, TypeReferences typeReferences) {
         this.basePackage = basePackage;
+        this.typeReferences = typeReferences;
     }
 
     /**
      * Add fqcn to the import list. Returns fqcn as needed in source code.
-     * Attempts to handle fqcn with array and generics references.
+     * Handles fqcn with array and (nested) generics references, every referenced type is imported.
      * <p/>
      * e.g.
-     * java.util.Collection<org.marvel.Hulk> imports java.util.Collection and returns Collection
-     * org.marvel.Hulk[] imports org.marvel.Hulk and returns Hulk
+     * java.util.Collection<org.marvel.Hulk> imports java.util.Collection and org.marvel.Hulk and returns Collection<Hulk>
+     * org.marvel.Hulk[] imports org.marvel.Hulk and returns Hulk[]
      *
      * @param fqcn Fully qualified class name
      * @return import string
      */
     @Override
     public String importType(String fqcn) {
-        String result = fqcn;
-
-        //if(fqcn==null) return "/** (null) **/";
-
-        String additionalTypePart = null;
-        if (fqcn.indexOf('<') >= 0) {
-            additionalTypePart = result.substring(fqcn.indexOf('<'));
-            result = result.substring(0, fqcn.indexOf('<'));
-            fqcn = result;
-        } else if (fqcn.indexOf('[') >= 0) {
-            additionalTypePart = result.substring(fqcn.indexOf('['));
-            result = result.substring(0, fqcn.indexOf('['));
-            fqcn = result;
+        TypeReference reference = typeReferences.get(fqcn);
+        if (reference.isSimple()) {
+            return importName(fqcn);
+        }
+        StringBuilder result = new StringBuilder(fqcn.length());
+        int size = reference.size();
+        for (int i = 0; i < size; i++) {
+            result.append(reference.getText(i)).append(importName(reference.getName(i)));
         }
+        return result.append(reference.getText(size)).toString();
+    }
 
+    private String importName(String fqcn) {
+        String result = fqcn;
         String pureFqcn = fqcn.replace('$', '.');
 
         boolean canBeSimple;
@@ -98,10 +110,6 @@ public class ImportContextImpl implements ImportContext {
             result = result.substring("java.lang.".length());
         }
 
-        if (additionalTypePart != null) {
-            result = result + additionalTypePart;
-        }
-
         result = result.replace('$', '.');
         return result;
     }
@@ -162,13 +170,6 @@ public class ImportContextImpl implements ImportContext {
         return imports;
     }
 
-    @Override
-    public void clearImports(Collection<String> imports) {
-        this.imports.removeAll(imports);
-        this.simpleNames.entrySet().removeIf(e -> imports.contains(e.getValue()));
-        this.staticImports.removeAll(imports);
-    }
-
     private boolean isAutoImported(String next) {
         return isPrimitive(next) || inDefaultPackage(next) || inJavaLang(next) || inSamePackage(next);
     }
@@ -0,0 +1,214 @@
+package org.ftibw.mongo.modelgen;
+
+import org.ftibw.mongo.modelgen.model.EntitySnapshot;
+import org.ftibw.mongo.modelgen.model.MetaEntity;
+import org.ftibw.mongo.modelgen.util.EntityFingerprint;
+import org.ftibw.mongo.modelgen.util.GenerationCache;
+
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * 分三个阶段生成元模型和dto：
+ * <ol>
+ * <li>快照：在javac线程上从Element中提取渲染所需的全部信息（Element API非线程安全）</li>
+ * <li>渲染：每个文件有独立的导入上下文，在ForkJoinPool上按文件并行渲染源码，并行度通过 -Aparallelism=N 配置，1表示在javac线程上串行渲染</li>
+ * <li>写入：回到javac线程，按实体顺序通过Filer写入文件，生成的Codec登记到Context，最后统一生成codec provider</li>
+ * </ol>
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 11:30
+ */
+final class ModelGenerator {
+
+    private final Context context;
+    private final int parallelism;
+
+    private ForkJoinPool pool;
+
+    ModelGenerator(Context context, int parallelism) {
+        this.context = context;
+        this.parallelism = parallelism;
+    }
+
+    void generate(Collection<MetaEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        GenerationCache cache = context.getGenerationCache();
+        ProcessingMetrics metrics = context.getMetrics();
+
+        List<PendingEntity> pendingEntities = new ArrayList<>(entities.size());
+        for (MetaEntity entity : entities) {
+            PendingEntity pending = new PendingEntity(entity);
+            if (cache != null) {
+                pending.fingerprint = EntityFingerprint.of(entity.getTypeElement(), context);
+                List<GeneratedFile> cached = cache.get(entity.getQualifiedName(), pending.fingerprint);
+                if (cached != null && context.verifyDeterminism()) {
+                    // rendered again and compared with the output of the run which created the cache entry
+                    pending.previousFiles = cached;
+                } else if (cached != null) {
+                    pending.files = cached;
+                    metrics.increment(ProcessingMetrics.Counter.CACHED_ENTITIES);
+                    context.logMessage(Diagnostic.Kind.OTHER, () -> "Reusing cached sources for " + entity.getQualifiedName());
+                    pendingEntities.add(pending);
+                    continue;
+                }
+            }
+            pending.snapshot = ClassWriter.createSnapshot(entity, context);
+            pendingEntities.add(pending);
+        }
+
+        render(pendingEntities);
+
+        for (PendingEntity pending : pendingEntities) {
+            MetaEntity entity = pending.entity;
+            List<GeneratedFile> files = pending.join();
+            if (pending.previousFiles != null) {
+                verifyDeterminism(entity, pending.previousFiles, files);
+            }
+            if (cache != null && pending.snapshot != null) {
+                cache.put(entity.getQualifiedName(), pending.fingerprint, files);
+            }
+            context.logMessage(Diagnostic.Kind.OTHER, () -> "Writing meta model for " + entity);
+            ClassWriter.writeFiles(entity, files, context);
+            int codecs = registerCodecs(files);
+            context.markGenerated(entity.getQualifiedName());
+            // rendered or taken from the cache, either way the specifications are no longer needed
+            context.releaseDtoSpecifications(entity.getQualifiedName());
+
+            metrics.increment(ProcessingMetrics.Counter.ENTITIES);
+            metrics.add(ProcessingMetrics.Counter.DTOS, countDtos(files, context.generateMetaModels()) - codecs);
+            metrics.add(ProcessingMetrics.Counter.CODECS, codecs);
+            metrics.add(ProcessingMetrics.Counter.FILES, files.size());
+        }
+    }
+
+    private int registerCodecs(List<GeneratedFile> files) {
+        int codecs = 0;
+        for (GeneratedFile file : files) {
+            if (file.isCodec()) {
+                context.registerCodec(file.getCodecTarget(), file.getQualifiedName());
+                codecs++;
+            }
+        }
+        return codecs;
+    }
+
+    /**
+     * The meta model comes first if it is generated, all other sources are dtos (or codecs).
+     */
+    private static int countDtos(List<GeneratedFile> files, boolean withMetaModel) {
+        int sources = 0;
+        for (GeneratedFile file : files) {
+            if (!file.isResource()) {
+                sources++;
+            }
+        }
+        return withMetaModel ? sources - 1 : sources;
+    }
+
+    private void render(List<PendingEntity> pendingEntities) {
+        if (parallelism <= 1) {
+            for (PendingEntity pending : pendingEntities) {
+                if (pending.snapshot != null) {
+                    pending.files = ClassWriter.generateFiles(pending.snapshot, context);
+                }
+            }
+            return;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        // one task per file, so the dtos of an entity with many specifications are spread over the pool as well
+        for (PendingEntity pending : pendingEntities) {
+            if (pending.snapshot != null) {
+                List<Supplier<GeneratedFile>> jobs = ClassWriter.createRenderJobs(pending.snapshot, context);
+                pending.tasks = new ArrayList<>(jobs.size());
+                for (Supplier<GeneratedFile> job : jobs) {
+                    pending.tasks.add(pool.submit(job::get));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the output with the output of a previous compilation for the same fingerprint, which may have run in
+     * another JVM. Output which is not byte identical for identical input defeats build caches.
+     *
+     * @param previous The files taken from the generation cache
+     * @param files    The files rendered in this compilation
+     */
+    private void verifyDeterminism(MetaEntity entity, List<GeneratedFile> previous, List<GeneratedFile> files) {
+        if (previous.size() != files.size()) {
+            context.logMessage(Diagnostic.Kind.ERROR, "Non-deterministic output for " + entity.getQualifiedName()
+                    + ": " + previous.size() + " files were generated by the previous run, now " + files.size());
+            return;
+        }
+        for (int i = 0; i < files.size(); i++) {
+            GeneratedFile file = previous.get(i);
+            GeneratedFile other = files.get(i);
+            if (!file.getQualifiedName().equals(other.getQualifiedName())) {
+                context.logMessage(Diagnostic.Kind.ERROR, "Non-deterministic output for " + entity.getQualifiedName()
+                        + ": " + file.getQualifiedName() + " was generated by the previous run, now "
+                        + other.getQualifiedName());
+            } else if (!file.getContent().equals(other.getContent())) {
+                context.logMessage(Diagnostic.Kind.ERROR, "Non-deterministic output for " + file.getQualifiedName()
+                        + " at line " + firstDifferentLine(file.getContent(), other.getContent()));
+            }
+        }
+    }
+
+    private static int firstDifferentLine(String content, String other) {
+        int line = 1;
+        int length = Math.min(content.length(), other.length());
+        for (int i = 0; i < length; i++) {
+            if (content.charAt(i) != other.charAt(i)) {
+                return line;
+            }
+            if (content.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static final class PendingEntity {
+        private final MetaEntity entity;
+        private String fingerprint;
+        private EntitySnapshot snapshot;
+        private List<ForkJoinTask<GeneratedFile>> tasks;
+        private List<GeneratedFile> files;
+        /**
+         * Cached files of the same fingerprint which are compared with the rendered ones, see verifyDeterminism
+         */
+        private List<GeneratedFile> previousFiles;
+
+        PendingEntity(MetaEntity entity) {
+            this.entity = entity;
+        }
+
+        List<GeneratedFile> join() {
+            if (tasks != null) {
+                files = new ArrayList<>(tasks.size());
+                for (ForkJoinTask<GeneratedFile> task : tasks) {
+                    files.add(task.join());
+                }
+                tasks = null;
+            }
+            return files;
+        }
+    }
+}
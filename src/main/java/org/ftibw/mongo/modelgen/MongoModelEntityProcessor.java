@@ -9,14 +9,20 @@ package org.ftibw.mongo.modelgen;
 import org.ftibw.mongo.modelgen.annotation.AnnotationMetaEntity;
 import org.ftibw.mongo.modelgen.model.MetaEntity;
 import org.ftibw.mongo.modelgen.publics.dto.Specs;
+import org.ftibw.mongo.modelgen.template.TemplateException;
+import org.ftibw.mongo.modelgen.template.Templates;
+import org.ftibw.mongo.modelgen.util.ClassNameFilter;
 import org.ftibw.mongo.modelgen.util.Constants;
+import org.ftibw.mongo.modelgen.util.DtoProp;
 import org.ftibw.mongo.modelgen.util.DtoSpec;
+import org.ftibw.mongo.modelgen.util.GenerateMode;
+import org.ftibw.mongo.modelgen.util.GenerationCache;
+import org.ftibw.mongo.modelgen.util.MetaModelIndex;
 import org.ftibw.mongo.modelgen.util.StringUtil;
 import org.ftibw.mongo.modelgen.util.TypeUtils;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
-import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
@@ -27,10 +33,22 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.SimpleTypeVisitor6;
 import javax.tools.Diagnostic;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 
 /**
  * Main annotation processor.
@@ -45,17 +63,123 @@ import java.util.Set;
 @SupportedOptions({
         MongoModelEntityProcessor.DEBUG_OPTION,
         MongoModelEntityProcessor.ADD_GENERATION_DATE,
-        MongoModelEntityProcessor.ADD_GENERATED_ANNOTATION
+        MongoModelEntityProcessor.ADD_GENERATED_ANNOTATION,
+        MongoModelEntityProcessor.GENERATION_CACHE,
+        MongoModelEntityProcessor.PARALLELISM,
+        MongoModelEntityProcessor.METRICS_FILE,
+        MongoModelEntityProcessor.GENERATION_DATE,
+        MongoModelEntityProcessor.VERIFY_DETERMINISM,
+        MongoModelEntityProcessor.OUTPUT_DIRECTORY,
+        MongoModelEntityProcessor.RESOURCE_OUTPUT_DIRECTORY,
+        MongoModelEntityProcessor.GENERATE_MODE,
+        MongoModelEntityProcessor.INCLUDES,
+        MongoModelEntityProcessor.EXCLUDES,
+        MongoModelEntityProcessor.GENERATE_CODECS,
+        MongoModelEntityProcessor.CODEC_PROVIDER,
+        MongoModelEntityProcessor.GENERATE_VO_DECODERS,
+        MongoModelEntityProcessor.GENERATE_VO_PROJECTIONS,
+        MongoModelEntityProcessor.GENERATE_LAZY_VOS,
+        MongoModelEntityProcessor.GENERATE_QUERY_ATTRIBUTES
 })
 public class MongoModelEntityProcessor extends AbstractProcessor {
     public static final String DEBUG_OPTION = "debug";
     public static final String ADD_GENERATION_DATE = "addGenerationDate";
     public static final String ADD_GENERATED_ANNOTATION = "addGeneratedAnnotation";
+    public static final String GENERATION_CACHE = "generationCache";
+    public static final String PARALLELISM = "parallelism";
+    public static final String METRICS_FILE = "metricsFile";
+    /**
+     * Fixed date of the generated annotation in seconds since the epoch, falls back to the SOURCE_DATE_EPOCH
+     * environment variable of reproducible builds.
+     */
+    public static final String GENERATION_DATE = "generationDate";
+    /**
+     * Renders entities found in the generation cache again and reports every difference to the sources cached by the
+     * previous compilation, which may have run in another JVM. Requires the generation cache.
+     */
+    public static final String VERIFY_DETERMINISM = "verifyDeterminism";
+    /**
+     * Writes the generated sources into the given directory instead of passing them through the Filer, so they are
+     * not compiled along (see the bulk generator). The index resources go to the resource output directory, which
+     * defaults to the same directory.
+     */
+    public static final String OUTPUT_DIRECTORY = "outputDirectory";
+    public static final String RESOURCE_OUTPUT_DIRECTORY = "resourceOutputDirectory";
+    /**
+     * {@link GenerateMode#metaModel} or {@link GenerateMode#dtoModel}, both are generated if not set.
+     */
+    public static final String GENERATE_MODE = "generateMode";
+    /**
+     * Comma separated class name patterns, see {@link ClassNameFilter}.
+     */
+    public static final String INCLUDES = "includes";
+    public static final String EXCLUDES = "excludes";
+    /**
+     * Generates a bson codec for every document entity and its vos whose fields are all supported, see
+     * {@link org.ftibw.mongo.modelgen.util.CodecFields}, and a codec provider which registers all of them.
+     */
+    public static final String GENERATE_CODECS = "generateCodecs";
+    /**
+     * Fully qualified name of the codec provider, defaults to ModelCodecProvider in the common package of all codecs.
+     */
+    public static final String CODEC_PROVIDER = "codecProvider";
+
+    /**
+     * Adds fromDocument(Document) and fromBson(BsonReader) to every vo whose printed properties are all persistent
+     * fields of supported type, see {@link org.ftibw.mongo.modelgen.util.CodecFields}. Requires the mongo driver at
+     * compile time.
+     */
+    public static final String GENERATE_VO_DECODERS = "generateVoDecoders";
+
+    /**
+     * Adds a precomputed projection of the document fields to every vo, as a driver Bson and applied to a spring data
+     * Query. Requires the mongo driver and spring data mongodb at compile time.
+     */
+    public static final String GENERATE_VO_PROJECTIONS = "generateVoProjections";
+
+    /**
+     * Generates a Lazy&lt;VO&gt; next to every vo which can be decoded, it wraps a RawBsonDocument and decodes each
+     * property on its first access.
+     */
+    public static final String GENERATE_LAZY_VOS = "generateLazyVos";
+
+    /**
+     * Adds a typed attribute for every persistent field of supported type to the meta models, e.g. User_.AGE.gt(18),
+     * see {@link org.ftibw.mongo.modelgen.publics.query.Attribute}. Requires spring data mongodb at compile time.
+     */
+    public static final String GENERATE_QUERY_ATTRIBUTES = "generateQueryAttributes";
+
+    private static final String DEFAULT_CODEC_PROVIDER_NAME = "ModelCodecProvider";
+    private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+    private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+    private static final String SOURCE_DATE_EPOCH = "SOURCE_DATE_EPOCH";
+    private static final String GENERATION_DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
     private static final Boolean ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS = Boolean.FALSE;
 
     private Context context;
 
+    private ModelGenerator generator;
+
+    private File generationCacheFile;
+
+    private int parallelism;
+
+    private File metricsFile;
+
+    private String codecProviderName;
+
+    /**
+     * Number of codecs registered in the written codec provider, -1 if it is not written yet.
+     */
+    private int providedCodecs = -1;
+
+    /**
+     * Entities whose super class chain could not be resolved yet, they are retried in the next round.
+     */
+    private final Set<String> deferredEntities = new LinkedHashSet<String>();
+
     @Override
     public void init(ProcessingEnvironment env) {
         super.init(env);
@@ -73,6 +197,206 @@ public class MongoModelEntityProcessor extends AbstractProcessor {
         tmp = env.getOptions().get(MongoModelEntityProcessor.ADD_GENERATION_DATE);
         boolean addGenerationDate = Boolean.parseBoolean(tmp);
         context.setAddGenerationDate(addGenerationDate);
+        if (addGenerationDate) {
+            initGenerationDate(env);
+        }
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_MODE);
+        if (tmp != null) {
+            try {
+                context.setGenerateMode(GenerateMode.valueOf(tmp.trim()));
+            } catch (IllegalArgumentException e) {
+                context.logMessage(
+                        Diagnostic.Kind.WARNING, "Ignoring unknown generate mode " + tmp + ", generating all models"
+                );
+            }
+        }
+
+        try {
+            context.setClassNameFilter(ClassNameFilter.of(
+                    env.getOptions().get(MongoModelEntityProcessor.INCLUDES),
+                    env.getOptions().get(MongoModelEntityProcessor.EXCLUDES)
+            ));
+        } catch (IllegalArgumentException e) {
+            context.logMessage(Diagnostic.Kind.ERROR, e.getMessage());
+        }
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_CODECS);
+        context.setGenerateCodecs(Boolean.parseBoolean(tmp));
+        codecProviderName = env.getOptions().get(MongoModelEntityProcessor.CODEC_PROVIDER);
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_VO_DECODERS);
+        context.setGenerateVoDecoders(Boolean.parseBoolean(tmp));
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_VO_PROJECTIONS);
+        context.setGenerateVoProjections(Boolean.parseBoolean(tmp));
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_LAZY_VOS);
+        context.setGenerateLazyVos(Boolean.parseBoolean(tmp));
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATE_QUERY_ATTRIBUTES);
+        context.setGenerateQueryAttributes(Boolean.parseBoolean(tmp));
+
+        initTemplates();
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.OUTPUT_DIRECTORY);
+        if (tmp != null) {
+            String resources = env.getOptions().get(MongoModelEntityProcessor.RESOURCE_OUTPUT_DIRECTORY);
+            context.setOutputDirectories(new File(tmp), new File(resources == null ? tmp : resources));
+        }
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.GENERATION_CACHE);
+        if (tmp != null) {
+            generationCacheFile = new File(tmp);
+            context.setGenerationCache(loadGenerationCache(generationCacheFile));
+        }
+        initVerifyDeterminism(env);
+
+        parallelism = parseParallelism(env.getOptions().get(MongoModelEntityProcessor.PARALLELISM));
+        generator = new ModelGenerator(context, parallelism);
+
+        tmp = env.getOptions().get(MongoModelEntityProcessor.METRICS_FILE);
+        if (tmp != null) {
+            metricsFile = new File(tmp);
+        }
+    }
+
+    /**
+     * The cached sources are the reference, they can only be compared if they do not contain the current time.
+     */
+    private void initVerifyDeterminism(ProcessingEnvironment env) {
+        if (!Boolean.parseBoolean(env.getOptions().get(MongoModelEntityProcessor.VERIFY_DETERMINISM))) {
+            return;
+        }
+        if (context.getGenerationCache() == null) {
+            context.logMessage(
+                    Diagnostic.Kind.WARNING, "Ignoring " + MongoModelEntityProcessor.VERIFY_DETERMINISM
+                            + ", the output is compared with the previous run in the " + GENERATION_CACHE
+            );
+        } else if (context.addGeneratedDate() && !context.isReproducibleGenerationDate()) {
+            context.logMessage(
+                    Diagnostic.Kind.WARNING, "Ignoring " + MongoModelEntityProcessor.VERIFY_DETERMINISM
+                            + ", the generation date changes on every run, set " + GENERATION_DATE
+            );
+        } else {
+            context.setVerifyDeterminism(true);
+        }
+    }
+
+    /**
+     * @return the number of available processors if the option is not set or invalid
+     */
+    private int parseParallelism(String value) {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+        if (value == null) {
+            return defaultParallelism;
+        }
+        try {
+            int parallelism = Integer.parseInt(value.trim());
+            if (parallelism > 0) {
+                return parallelism;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        context.logMessage(
+                Diagnostic.Kind.WARNING, "Ignoring invalid parallelism " + value
+                        + ", expecting a positive number, using " + defaultParallelism
+        );
+        return defaultParallelism;
+    }
+
+    /**
+     * Templates below {@link Templates#OVERRIDE_LOCATION} on the processor path replace the built-in ones.
+     */
+    private void initTemplates() {
+        try {
+            context.setTemplates(Templates.load(MongoModelEntityProcessor.class.getClassLoader()));
+        } catch (IOException | TemplateException e) {
+            context.logMessage(Diagnostic.Kind.ERROR, "Unable to load the templates: " + e.getMessage());
+        }
+    }
+
+    private void initGenerationDate(ProcessingEnvironment env) {
+        SimpleDateFormat format = new SimpleDateFormat(GENERATION_DATE_PATTERN);
+        String epochSeconds = env.getOptions().get(MongoModelEntityProcessor.GENERATION_DATE);
+        if (epochSeconds == null) {
+            epochSeconds = System.getenv(SOURCE_DATE_EPOCH);
+        }
+        if (epochSeconds != null) {
+            try {
+                Date date = new Date(Long.parseLong(epochSeconds.trim()) * 1000L);
+                // the time zone of the build machine must not leak into reproducible output
+                format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                context.setGenerationDate(format.format(date), true);
+                return;
+            } catch (NumberFormatException e) {
+                context.logMessage(
+                        Diagnostic.Kind.WARNING, "Ignoring invalid generation date " + epochSeconds + ", using the current time"
+                );
+            }
+        }
+        context.setGenerationDate(format.format(new Date()), false);
+    }
+
+    private GenerationCache loadGenerationCache(File file) {
+        try {
+            GenerationCache cache = GenerationCache.load(file);
+            context.logMessage(Diagnostic.Kind.OTHER, () -> "Loaded " + cache.size() + " cached entities from " + file);
+            return cache;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // an outdated or broken cache only costs a regeneration
+            context.logMessage(Diagnostic.Kind.WARNING, "Ignoring unreadable generation cache " + file + ": " + e);
+            return new GenerationCache();
+        }
+    }
+
+    private void storeGenerationCache() {
+        GenerationCache cache = context.getGenerationCache();
+        if (cache == null) {
+            return;
+        }
+        // an incremental compilation only sees the changed entities, the others are still on the class path
+        int pruned = cache.prune(qualifiedName -> context.getTypeElementForFullyQualifiedName(qualifiedName) == null);
+        context.logMessage(Diagnostic.Kind.OTHER, () -> "Pruned " + pruned + " removed entities from the generation cache");
+        if (!cache.isModified()) {
+            return;
+        }
+        try {
+            cache.store(generationCacheFile);
+        } catch (IOException e) {
+            context.logMessage(Diagnostic.Kind.WARNING, "Unable to store generation cache " + generationCacheFile + ": " + e);
+        }
+    }
+
+    private void reportMetrics() {
+        ProcessingMetrics metrics = context.getMetrics();
+        context.logMessage(Diagnostic.Kind.OTHER, metrics::summary);
+        if (metricsFile == null) {
+            return;
+        }
+        File parent = metricsFile.getAbsoluteFile().getParentFile();
+        try {
+            Files.createDirectories(parent.toPath());
+            try (Writer writer = Files.newBufferedWriter(metricsFile.toPath(), StandardCharsets.UTF_8)) {
+                metrics.writeJson(writer, parallelism);
+            }
+        } catch (IOException e) {
+            context.logMessage(Diagnostic.Kind.WARNING, "Unable to write metrics " + metricsFile + ": " + e);
+        }
+    }
+
+    /**
+     * The processor is registered as dynamic incremental processor for gradle, it is isolating unless the codec
+     * provider aggregates all entities.
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<String>(super.getSupportedOptions());
+        boolean aggregating = processingEnv != null
+                && Boolean.parseBoolean(processingEnv.getOptions().get(MongoModelEntityProcessor.GENERATE_CODECS));
+        options.add(aggregating ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+        return options;
     }
 
     @Override
@@ -82,59 +406,218 @@ public class MongoModelEntityProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+        if (roundEnvironment.processingOver()) {
+            for (String qualifiedName : deferredEntities) {
+                context.logMessage(
+                        Diagnostic.Kind.WARNING, "Super class of " + qualifiedName
+                                + " could not be resolved, no meta model generated"
+                );
+            }
+            // written directly into the output directory there is no further round, see OUTPUT_DIRECTORY
+            writeCodecProvider();
+            int codecs = context.getCodecs().size();
+            if (providedCodecs >= 0 && codecs > providedCodecs) {
+                context.logMessage(
+                        Diagnostic.Kind.WARNING, (codecs - providedCodecs) + " codecs were generated after the codec"
+                                + " provider, register them manually"
+                );
+            }
+            generator.shutdown();
+            storeGenerationCache();
+            context.clearDtoSpecifications();
+            Runtime runtime = Runtime.getRuntime();
+            context.getMetrics().set(ProcessingMetrics.Gauge.HEAP_USED_AT_END, runtime.totalMemory() - runtime.freeMemory());
+            reportMetrics();
+            return ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS;
+        }
         // see also METAGEN-45
-        if (roundEnvironment.processingOver() || annotations.size() == 0) {
+        if (annotations.size() == 0 && deferredEntities.isEmpty()) {
+            // the first round without new entities, the codecs of all previous rounds are known
+            writeCodecProvider();
             return ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS;
         }
 
-        Set<? extends Element> elements = roundEnvironment.getRootElements();
-        for (Element element : elements) {
+        ProcessingMetrics metrics = context.getMetrics();
+        metrics.increment(ProcessingMetrics.Counter.ROUNDS);
 
-            if (isJPAEntity(element)) {
+        long start = metrics.start();
+        List<MetaEntity> roundEntities = discoverRoundEntities(annotations, roundEnvironment);
+        metrics.stop(ProcessingMetrics.Phase.DISCOVERY, start);
 
-                context.logMessage(Diagnostic.Kind.OTHER, "Processing annotated class " + element.toString());
-                handleRootElementAnnotationMirrors(element);
+        Set<String> unresolved = findUnresolvedEntities(roundEntities);
+        List<MetaEntity> readyEntities = new ArrayList<MetaEntity>(roundEntities.size());
+        for (MetaEntity entity : roundEntities) {
+            if (unresolved.contains(entity.getQualifiedName())) {
+                // the super class may be generated by another processor, try again in the next round
+                context.logMessage(
+                        Diagnostic.Kind.OTHER, () -> "Deferring " + entity.getQualifiedName() + " to the next round"
+                );
+                deferredEntities.add(entity.getQualifiedName());
+                continue;
             }
+            readyEntities.add(entity);
+
+            if (!context.generateDtoModels() || entity.getTypeElement().getAnnotation(Specs.class) == null) {
+                continue;
+            }
+            start = metrics.start();
+            List<DtoSpec> dtoSpecs = DtoSpec.buildDtoSpecifications(entity, getSuperDefaultDtoProps(entity));
+            context.putDtoSpecifications(entity.getQualifiedName(), dtoSpecs);
+            metrics.stop(ProcessingMetrics.Phase.DTO_SPECIFICATION, start);
         }
 
-        for (MetaEntity entity : context.getMetaEntities()) {
+        createMetaModelClasses(readyEntities);
+        return ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS;
+    }
 
-            Element superElement = ClassWriter.findMappedSuperElement(entity, context);
-            if (superElement == null) {
-                String superclass = entity.getTypeElement().getSuperclass().toString();
+    private void writeCodecProvider() {
+        Map<String, String> codecs = context.getCodecs();
+        if (providedCodecs >= 0 || codecs.isEmpty()) {
+            return;
+        }
+        providedCodecs = codecs.size();
+        String providerName = codecProviderName;
+        if (providerName == null) {
+            String providerPackage = getCommonPackage(codecs.values());
+            if (providerPackage.isEmpty()) {
+                context.logMessage(
+                        Diagnostic.Kind.WARNING, "The codecs have no common package, set -A" + CODEC_PROVIDER
+                                + "=<fqcn> to generate the codec provider"
+                );
+                return;
+            }
+            providerName = providerPackage + "." + DEFAULT_CODEC_PROVIDER_NAME;
+        }
+        List<Element> originatingElements = new ArrayList<Element>(codecs.size());
+        for (String target : codecs.keySet()) {
+            TypeElement element = context.getTypeElementForFullyQualifiedName(target);
+            if (element != null) {
+                originatingElements.add(element);
+            }
+        }
+        context.logMessage(Diagnostic.Kind.OTHER, "Writing codec provider " + providerName);
+        ClassWriter.writeFiles(
+                providerName,
+                Collections.singletonList(ClassWriter.generateCodecProvider(providerName, codecs, context)),
+                context,
+                originatingElements.toArray(new Element[0])
+        );
+    }
 
-                if (!Object.class.getName().equals(superclass)) {
-                    context.logMessage(Diagnostic.Kind.NOTE, "Superclass " + superclass +
-                            " absent of entity " + entity.getQualifiedName() + ", stop model generate");
-                    return ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS;
-                }
+    private static String getCommonPackage(Collection<String> classNames) {
+        String common = null;
+        for (String className : classNames) {
+            String classPackage = className.substring(0, Math.max(className.lastIndexOf('.'), 0));
+            if (common == null) {
+                common = classPackage;
+                continue;
+            }
+            while (!common.isEmpty() && !(classPackage.equals(common) || classPackage.startsWith(common + "."))) {
+                common = common.substring(0, Math.max(common.lastIndexOf('.'), 0));
+            }
+        }
+        return common == null ? "" : common;
+    }
+
+    /**
+     * @return the entities deferred in the previous round followed by the ones discovered in this round, entities
+     * of earlier rounds are never processed again
+     */
+    private List<MetaEntity> discoverRoundEntities(Set<? extends TypeElement> annotations,
+                                                   RoundEnvironment roundEnvironment) {
+        List<MetaEntity> roundEntities = new ArrayList<MetaEntity>();
+
+        // elements must not be reused across rounds, so deferred entities are looked up again
+        Set<String> deferred = new LinkedHashSet<String>(deferredEntities);
+        deferredEntities.clear();
+        for (String qualifiedName : deferred) {
+            TypeElement element = context.getTypeElementForFullyQualifiedName(qualifiedName);
+            if (element != null) {
+                boolean mappedSuperclass = TypeUtils.containsAnnotation(element, Constants.MAPPED_SUPERCLASS);
+                roundEntities.add(addMetaEntity(element, mappedSuperclass));
             }
+        }
 
-            if (entity.getTypeElement().getAnnotation(Specs.class) == null) {
+        AnnotationIndex index = AnnotationIndex.build(annotations, roundEnvironment);
+        for (TypeElement element : index.getTypes()) {
+            String qualifiedName = element.getQualifiedName().toString();
+            if (deferred.contains(qualifiedName) || context.containsMetaEntity(qualifiedName)) {
+                continue;
+            }
+            if (!context.isIncluded(qualifiedName)) {
+                context.logMessage(Diagnostic.Kind.OTHER, () -> "Skipping excluded class " + qualifiedName);
+                context.addExcludedEntity(qualifiedName);
                 continue;
             }
-            DtoSpec.buildDtoSpecifications(entity, superElement);
+            roundEntities.add(addMetaEntity(element, index.isMappedSuperclass(qualifiedName)));
         }
+        return roundEntities;
+    }
 
-        createMetaModelClasses();
-        return ALLOW_OTHER_PROCESSORS_TO_CLAIM_ANNOTATIONS;
+    private MetaEntity addMetaEntity(TypeElement element, boolean requiresLazyMemberInitialization) {
+        context.logMessage(Diagnostic.Kind.OTHER, () -> "Processing annotated class " + element.toString());
+        MetaEntity entity = new AnnotationMetaEntity(element, context, requiresLazyMemberInitialization);
+        context.addMetaEntity(element.getQualifiedName().toString(), entity);
+        return entity;
     }
 
-    private void createMetaModelClasses() {
-        for (MetaEntity entity : context.getMetaEntities()) {
-            if (context.isAlreadyGenerated(entity.getQualifiedName())) {
-                continue;
+    /**
+     * An entity is unresolved if its super class chain contains a type which does not exist (yet), or if its mapped
+     * super class is unresolved itself, since the members of the super class are merged into the dtos.
+     */
+    private Set<String> findUnresolvedEntities(List<MetaEntity> roundEntities) {
+        TypeHierarchy typeHierarchy = context.getTypeHierarchy();
+        Set<String> unresolved = new HashSet<String>();
+        for (MetaEntity entity : roundEntities) {
+            if (typeHierarchy.hasUnresolvedSuperclass(entity.getTypeElement())) {
+                unresolved.add(entity.getQualifiedName());
+            }
+        }
+        boolean changed = !unresolved.isEmpty();
+        while (changed) {
+            changed = false;
+            for (MetaEntity entity : roundEntities) {
+                if (unresolved.contains(entity.getQualifiedName())) {
+                    continue;
+                }
+                String superClassName = typeHierarchy.getMappedSuperclassName(entity);
+                if (superClassName != null && unresolved.contains(superClassName)) {
+                    unresolved.add(entity.getQualifiedName());
+                    changed = true;
+                }
             }
-            context.logMessage(Diagnostic.Kind.OTHER, "Writing meta model for entity " + entity);
-            ClassWriter.writeFile(entity, context);
-            context.markGenerated(entity.getQualifiedName());
         }
+        return unresolved;
+    }
+
+    /**
+     * The default spec of a mapped super class compiled in another module is taken from its meta model index, its
+     * annotations are only read if there is no index (eg the module was built by an older version).
+     */
+    private Map<String, DtoProp> getSuperDefaultDtoProps(MetaEntity entity) {
+        String superClassName = context.getTypeHierarchy().getMappedSuperclassName(entity);
+        if (superClassName == null) {
+            return Collections.emptyMap();
+        }
+        if (!context.containsMetaEntity(superClassName)) {
+            MetaModelIndex index = context.getMetaModelIndex(superClassName);
+            if (index != null) {
+                return index.getDefaultDtoPropertyMap();
+            }
+        }
+        TypeElement superElement = context.getTypeElementForFullyQualifiedName(superClassName);
+        return superElement == null ? Collections.<String, DtoProp>emptyMap() : DtoSpec.getDefaultDtoProps(superElement);
+    }
+
+    private void createMetaModelClasses(List<MetaEntity> entities) {
+        generator.generate(entities);
 
         // we cannot process the delayed entities in any order. There might be dependencies between them.
         // we need to process the top level entities first
         Collection<MetaEntity> toProcessEntities = context.getMetaEmbeddables();
         while (!toProcessEntities.isEmpty()) {
             Set<MetaEntity> processedEntities = new HashSet<MetaEntity>();
+            List<MetaEntity> readyEntities = new ArrayList<MetaEntity>();
             int toProcessCountBeforeLoop = toProcessEntities.size();
             for (MetaEntity entity : toProcessEntities) {
                 // see METAGEN-36
@@ -148,10 +631,10 @@ public class MongoModelEntityProcessor extends AbstractProcessor {
                 context.logMessage(
                         Diagnostic.Kind.OTHER, "Writing meta model for embeddable/mapped superclass" + entity
                 );
-                ClassWriter.writeFile(entity, context);
-                context.markGenerated(entity.getQualifiedName());
+                readyEntities.add(entity);
                 processedEntities.add(entity);
             }
+            generator.generate(readyEntities);
             toProcessEntities.removeAll(processedEntities);
             if (toProcessEntities.size() >= toProcessCountBeforeLoop) {
                 context.logMessage(
@@ -193,43 +676,6 @@ public class MongoModelEntityProcessor extends AbstractProcessor {
         return false;
     }
 
-    private boolean isJPAEntity(Element element) {
-        return TypeUtils.containsAnnotation(
-                element,
-                Constants.ENTITY,
-                Constants.MAPPED_SUPERCLASS
-        );
-    }
-
-    private void handleRootElementAnnotationMirrors(final Element element) {
-        if (!ElementKind.CLASS.equals(element.getKind())) {
-            return;
-        }
-
-        List<? extends AnnotationMirror> annotationMirrors = element.getAnnotationMirrors();
-        for (AnnotationMirror mirror : annotationMirrors) {
-            boolean requiresLazyMemberInitialization = false;
-
-            AnnotationMetaEntity metaEntity;
-            if (TypeUtils.containsAnnotation(element, Constants.MAPPED_SUPERCLASS)) {
-                requiresLazyMemberInitialization = true;
-            }
-
-            metaEntity = new AnnotationMetaEntity((TypeElement) element, context, requiresLazyMemberInitialization);
-
-            addMetaEntityToContext(mirror, metaEntity);
-        }
-    }
-
-    private void addMetaEntityToContext(AnnotationMirror mirror, AnnotationMetaEntity metaEntity) {
-        if (TypeUtils.isAnnotationMirrorOfType(mirror, Constants.ENTITY)) {
-            context.addMetaEntity(metaEntity.getQualifiedName(), metaEntity);
-        } else if (TypeUtils.isAnnotationMirrorOfType(mirror, Constants.MAPPED_SUPERCLASS)) {
-            context.addMetaEntity(metaEntity.getQualifiedName(), metaEntity);
-        }
-    }
-
-
     static class ContainsAttributeTypeVisitor extends SimpleTypeVisitor6<Boolean, Element> {
 
         private Context context;
@@ -0,0 +1,195 @@
+package org.ftibw.mongo.modelgen;
+
+import org.ftibw.mongo.modelgen.util.StringUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一次编译中各阶段的耗时和计数
+ * <p>
+ * 渲染在ForkJoinPool上并行执行，计时和计数都是线程安全的累加；
+ * 并行渲染的阶段耗时是各线程耗时之和，可能超过编译的实际耗时
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 16:20
+ */
+public final class ProcessingMetrics {
+
+    public enum Phase {
+        /**
+         * 查找注解类型并创建MetaEntity
+         */
+        DISCOVERY,
+        /**
+         * 解析@Specs为DtoSpec
+         */
+        DTO_SPECIFICATION,
+        META_MODEL_RENDER,
+        DTO_RENDER,
+        CODEC_RENDER,
+        FILER_WRITE
+    }
+
+    public enum Counter {
+        ROUNDS,
+        ENTITIES,
+        /**
+         * 命中生成缓存、未重新渲染的实体
+         */
+        CACHED_ENTITIES,
+        /**
+         * 渲染的元模型属性
+         */
+        ATTRIBUTES,
+        DTOS,
+        /**
+         * 实体和vo的Codec，不包括codec provider
+         */
+        CODECS,
+        FILES,
+        BYTES_WRITTEN,
+        /**
+         * 解析出的DtoSpec
+         */
+        DTO_SPECIFICATIONS
+    }
+
+    public enum Gauge {
+        /**
+         * 同时保留在Context中的DtoSpec的最大数量
+         */
+        RETAINED_DTO_SPECIFICATIONS_PEAK,
+        /**
+         * 编译结束时仍未释放的DtoSpec（未能生成的实体）
+         */
+        RETAINED_DTO_SPECIFICATIONS_AT_END,
+        /**
+         * 编译结束时的堆占用，长期运行的编译守护进程中应保持平稳
+         */
+        HEAP_USED_AT_END
+    }
+
+    private final long createdAt = System.nanoTime();
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, LongAdder> phaseCalls = new EnumMap<>(Phase.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Map<Gauge, AtomicLong> gauges = new EnumMap<>(Gauge.class);
+
+    public ProcessingMetrics() {
+        // all adders are created upfront so that the maps are only read concurrently
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+            phaseCalls.put(phase, new LongAdder());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+        for (Gauge gauge : Gauge.values()) {
+            gauges.put(gauge, new AtomicLong());
+        }
+    }
+
+    /**
+     * @return 计时起点，传给{@link #stop(Phase, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(Phase phase, long start) {
+        phaseNanos.get(phase).add(System.nanoTime() - start);
+        phaseCalls.get(phase).increment();
+    }
+
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    public void add(Counter counter, long value) {
+        counters.get(counter).add(value);
+    }
+
+    public long get(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    public void set(Gauge gauge, long value) {
+        gauges.get(gauge).set(value);
+    }
+
+    public void max(Gauge gauge, long value) {
+        gauges.get(gauge).accumulateAndGet(value, Math::max);
+    }
+
+    public long get(Gauge gauge) {
+        return gauges.get(gauge).get();
+    }
+
+    public long getNanos(Phase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public void writeJson(Writer writer, int parallelism) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"version\": \"" + Version.getVersionString() + "\",\n");
+        writer.write("  \"parallelism\": " + parallelism + ",\n");
+        writer.write("  \"totalNanos\": " + (System.nanoTime() - createdAt) + ",\n");
+        writer.write("  \"phases\": {");
+        String separator = "\n";
+        for (Phase phase : Phase.values()) {
+            writer.write(separator + "    \"" + jsonName(phase) + "\": {\"nanos\": " + getNanos(phase)
+                    + ", \"calls\": " + phaseCalls.get(phase).sum() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  },\n");
+        writer.write("  \"counters\": {");
+        separator = "\n";
+        for (Counter counter : Counter.values()) {
+            writer.write(separator + "    \"" + jsonName(counter) + "\": " + get(counter));
+            separator = ",\n";
+        }
+        writer.write("\n  },\n");
+        writer.write("  \"gauges\": {");
+        separator = "\n";
+        for (Gauge gauge : Gauge.values()) {
+            writer.write(separator + "    \"" + jsonName(gauge) + "\": " + get(gauge));
+            separator = ",\n";
+        }
+        writer.write("\n  }\n");
+        writer.write("}\n");
+    }
+
+    /**
+     * @return 调试输出用的一行摘要
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Mongo Model Generator metrics:");
+        for (Phase phase : Phase.values()) {
+            sb.append(' ').append(jsonName(phase)).append('=').append(getNanos(phase) / 1000000).append("ms");
+        }
+        for (Counter counter : Counter.values()) {
+            sb.append(' ').append(jsonName(counter)).append('=').append(get(counter));
+        }
+        for (Gauge gauge : Gauge.values()) {
+            sb.append(' ').append(jsonName(gauge)).append('=').append(get(gauge));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * META_MODEL_RENDER -> metaModelRender
+     */
+    private static String jsonName(Enum<?> constant) {
+        String[] words = constant.name().toLowerCase().split("_");
+        StringBuilder sb = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            sb.append(StringUtil.firstUpperCase(words[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package org.ftibw.mongo.modelgen;
+
+import org.ftibw.mongo.modelgen.model.MetaEntity;
+import org.ftibw.mongo.modelgen.util.Constants;
+import org.ftibw.mongo.modelgen.util.TypeUtils;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次处理过程内共享的类型层级缓存，元模型和dto生成都从这里获取最近的有元模型的父类
+ * <p>
+ * 每个类型的父类链只遍历一次：遍历经过的中间类型会一起记录结果，后续子类遍历到它们时直接命中。
+ * 缓存按全限定名保存，不持有跨轮次的Element
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 15:00
+ */
+public final class TypeHierarchy {
+
+    /**
+     * 没有有元模型的父类
+     */
+    private static final String NONE = "";
+
+    private final Context context;
+    private final Map<String, String> mappedSuperclasses = new HashMap<>();
+
+    TypeHierarchy(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * @return 实体最近的有元模型的父类，没有时返回null
+     */
+    public TypeElement getMappedSuperclass(MetaEntity entity) {
+        String superClassName = getMappedSuperclassName(entity);
+        return superClassName == null ? null : context.getTypeElementForFullyQualifiedName(superClassName);
+    }
+
+    /**
+     * @return 实体最近的有元模型的父类全限定名，没有时返回null
+     */
+    public String getMappedSuperclassName(MetaEntity entity) {
+        if (entity.isMetaComplete()) {
+            // annotations must not be considered, see extendsSuperMetaModel
+            return resolve(entity.getTypeElement(), true);
+        }
+        String qualifiedName = entity.getQualifiedName();
+        String cached = mappedSuperclasses.get(qualifiedName);
+        if (cached == null) {
+            cached = resolve(entity.getTypeElement(), false);
+        }
+        return NONE.equals(cached) ? null : cached;
+    }
+
+    /**
+     * @return 父类链中是否存在尚不存在的类型（如由其他注解处理器在后续轮次生成），此时需要推迟到下一轮处理
+     */
+    public boolean hasUnresolvedSuperclass(TypeElement type) {
+        TypeMirror superClass = type.getSuperclass();
+        while (superClass.getKind() == TypeKind.DECLARED) {
+            TypeElement superClassElement = (TypeElement) ((DeclaredType) superClass).asElement();
+            if (mappedSuperclasses.containsKey(superClassElement.getQualifiedName().toString())) {
+                // only resolved chains are cached
+                return false;
+            }
+            superClass = superClassElement.getSuperclass();
+        }
+        return superClass.getKind() == TypeKind.ERROR;
+    }
+
+    private String resolve(TypeElement type, boolean entityMetaComplete) {
+        List<String> visited = new ArrayList<>();
+        visited.add(type.getQualifiedName().toString());
+
+        String result = NONE;
+        TypeMirror superClass = type.getSuperclass();
+        //superclass of Object is of NoType which returns some other kind
+        while (superClass.getKind() == TypeKind.DECLARED) {
+            TypeElement superClassElement = (TypeElement) ((DeclaredType) superClass).asElement();
+            String superClassName = superClassElement.getQualifiedName().toString();
+            if (extendsSuperMetaModel(superClassElement, superClassName, entityMetaComplete)) {
+                result = superClassName;
+                break;
+            }
+            if (!entityMetaComplete) {
+                String cached = mappedSuperclasses.get(superClassName);
+                if (cached != null) {
+                    result = cached;
+                    break;
+                }
+            }
+            visited.add(superClassName);
+            superClass = superClassElement.getSuperclass();
+        }
+
+        // a super class which is not generated yet (eg by another processor) may become available in a later round
+        boolean resolved = !NONE.equals(result) || superClass.getKind() != TypeKind.ERROR;
+        if (!entityMetaComplete && resolved) {
+            // every visited type without meta model shares the result of the type it was reached from
+            for (String name : visited) {
+                mappedSuperclasses.put(name, result);
+            }
+        }
+        return NONE.equals(result) ? null : result;
+    }
+
+    /**
+     * Checks whether this metamodel class needs to extend another metamodel class.
+     * This methods checks whether the processor has generated a metamodel class for the super class, but it also
+     * allows for the possibility that the metamodel class was generated in a previous compilation (eg it could be
+     * part of a separate jar. See also METAGEN-35). A super class excluded by -Aincludes/-Aexcludes is skipped, so
+     * the next mapped super class up the chain is extended instead.
+     *
+     * @param superClassElement  the super class element
+     * @param superClassName     the qualified name of the super class
+     * @param entityMetaComplete flag indicating if the entity for which the metamodel should be generarted is metamodel
+     *                           complete. If so we cannot use reflection to decide whether we have to add the extend clause
+     * @return {@code true} in case there is super class meta model to extend from {@code false} otherwise.
+     */
+    private boolean extendsSuperMetaModel(TypeElement superClassElement, String superClassName,
+                                          boolean entityMetaComplete) {
+        // if we processed the superclass in the same run we definitely need to extend
+        if (context.containsMetaEntity(superClassName)
+                || context.containsMetaEmbeddable(superClassName)) {
+            return true;
+        }
+
+        // the meta model of a super class skipped by the class name filter is never generated, unless it was
+        // generated along with a meta model index in another module
+        if (!context.isIncluded(superClassName) && (context.isExcludedEntity(superClassName)
+                || context.getMetaModelIndex(superClassName) == null)) {
+            return false;
+        }
+
+        // to allow for the case that the metamodel class for the super entity is for example contained in another
+        // jar file we use reflection. However, we need to consider the fact that there is xml configuration
+        // and annotations should be ignored
+        return !entityMetaComplete && TypeUtils.containsAnnotation(
+                superClassElement, Constants.ENTITY, Constants.MAPPED_SUPERCLASS
+        );
+    }
+}
@@ -7,13 +7,17 @@
 package org.ftibw.mongo.modelgen.annotation;
 
 import org.ftibw.mongo.modelgen.model.MetaAttribute;
-import org.ftibw.mongo.modelgen.model.MetaCollection;
 import org.ftibw.mongo.modelgen.model.MetaEntity;
 
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Captures all information about an annotated persistent attribute.
@@ -27,45 +31,26 @@ public abstract class AnnotationMetaAttribute implements MetaAttribute {
     private final Element element;
     private final AnnotationMetaEntity parent;
     private final String type;
+    private final String propertyName;
+    private final String declaredType;
+    private final List<String> annotations;
 
     public AnnotationMetaAttribute(AnnotationMetaEntity parent, Element element, String type) {
         this.element = element;
         this.parent = parent;
         this.type = type;
+        // computed once, the attribute is read per entity, per dto and per subclass
+        this.propertyName = resolvePropertyName();
+        this.declaredType = element.asType().toString();
+        this.annotations = resolveAnnotations();
     }
 
     @Override
-    public String getAttributeDeclarationString() {
-        String declarationType = parent.importType(getTypeDeclaration());
-        if (this instanceof MetaCollection) {
-            declarationType = parent.importType(element.asType().toString())
-                    .replace(type, declarationType);
-        }
-        return new StringBuilder().append("private ")
-                .append(declarationType)
-                .append(" ")
-                .append(getPropertyName())
-                .append(";")
-                .toString();
-    }
-
-    @Override
-    public String getAttributeNameDeclarationString() {
-        return new StringBuilder().append("public static final ")
-                .append(parent.importType(String.class.getName()))
-                .append(" ")
-//                .append(StringUtil.getUpperUnderscoreCaseFromLowerCamelCase(getPropertyName()))
-                .append(getPropertyName())
-                .append(" = ")
-                .append("\"")
-                .append(getPropertyName())
-                .append("\"")
-                .append(";")
-                .toString();
+    public String getPropertyName() {
+        return propertyName;
     }
 
-    @Override
-    public String getPropertyName() {
+    private String resolvePropertyName() {
         Elements elementsUtil = parent.getContext().getElementUtils();
         if (element.getKind() == ElementKind.FIELD) {
             return element.getSimpleName().toString();
@@ -95,6 +80,28 @@ public abstract class AnnotationMetaAttribute implements MetaAttribute {
         return type;
     }
 
+    @Override
+    public String getDeclaredType() {
+        return declaredType;
+    }
+
+    @Override
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    private List<String> resolveAnnotations() {
+        List<? extends AnnotationMirror> mirrors = element.getAnnotationMirrors();
+        if (mirrors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(mirrors.size());
+        for (AnnotationMirror mirror : mirrors) {
+            names.add(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString());
+        }
+        return Collections.unmodifiableList(names);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -8,6 +8,7 @@ package org.ftibw.mongo.modelgen.annotation;
 
 import org.ftibw.mongo.modelgen.Context;
 import org.ftibw.mongo.modelgen.ImportContextImpl;
+import org.ftibw.mongo.modelgen.model.AttributeSnapshot;
 import org.ftibw.mongo.modelgen.model.ImportContext;
 import org.ftibw.mongo.modelgen.model.MetaAttribute;
 import org.ftibw.mongo.modelgen.model.MetaEntity;
@@ -36,6 +37,16 @@ public class AnnotationMetaEntity implements MetaEntity {
     private final Map<String, MetaAttribute> members;
     private final Context context;
 
+    private final String simpleName;
+    private final String qualifiedName;
+    private final String packageName;
+
+    /**
+     * Frozen view of {@link #members} and its snapshots, reset whenever members are merged in.
+     */
+    private List<MetaAttribute> frozenMembers;
+    private List<AttributeSnapshot> memberSnapshots;
+
     /**
      * Whether the members of this type have already been initialized or not.
      * <p>
@@ -60,7 +71,11 @@ public class AnnotationMetaEntity implements MetaEntity {
         this.element = element;
         this.context = context;
         this.members = new LinkedHashMap<>();
-        this.importContext = new ImportContextImpl(getPackageName());
+        this.simpleName = element.getSimpleName().toString();
+        this.qualifiedName = element.getQualifiedName().toString();
+        PackageElement packageOf = context.getElementUtils().getPackageOf(element);
+        this.packageName = packageOf.getQualifiedName().toString();
+        this.importContext = new ImportContextImpl(packageName, context.getTypeReferences());
         if (!lazilyInitialised) {
             init();
         }
@@ -72,18 +87,17 @@ public class AnnotationMetaEntity implements MetaEntity {
 
     @Override
     public final String getSimpleName() {
-        return element.getSimpleName().toString();
+        return simpleName;
     }
 
     @Override
     public final String getQualifiedName() {
-        return element.getQualifiedName().toString();
+        return qualifiedName;
     }
 
     @Override
     public final String getPackageName() {
-        PackageElement packageOf = context.getElementUtils().getPackageOf(element);
-        return context.getElementUtils().getName(packageOf.getQualifiedName()).toString();
+        return packageName;
     }
 
     @Override
@@ -94,8 +108,23 @@ public class AnnotationMetaEntity implements MetaEntity {
                 mergeInMembers(entityToMerge.getMembers());
             }
         }
+        if (frozenMembers == null) {
+            frozenMembers = Collections.unmodifiableList(new ArrayList<>(members.values()));
+        }
+        return frozenMembers;
+    }
 
-        return new ArrayList<>(members.values());
+    @Override
+    public List<AttributeSnapshot> getMemberSnapshots() {
+        if (memberSnapshots == null) {
+            List<MetaAttribute> metaMembers = getMembers();
+            List<AttributeSnapshot> snapshots = new ArrayList<>(metaMembers.size());
+            for (MetaAttribute member : metaMembers) {
+                snapshots.add(AttributeSnapshot.of(member));
+            }
+            memberSnapshots = Collections.unmodifiableList(snapshots);
+        }
+        return memberSnapshots;
     }
 
     @Override
@@ -111,6 +140,8 @@ public class AnnotationMetaEntity implements MetaEntity {
 
             members.put(attribute.getPropertyName(), attribute);
         }
+        frozenMembers = null;
+        memberSnapshots = null;
     }
 
     public void mergeInMembers(MetaEntity other) {
@@ -132,11 +163,6 @@ public class AnnotationMetaEntity implements MetaEntity {
         return importContext.getImports();
     }
 
-    @Override
-    public void clearImports(Collection<String> imports) {
-        importContext.clearImports(imports);
-    }
-
     @Override
     public final String importType(String fqcn) {
         return importContext.importType(fqcn);
@@ -167,7 +193,7 @@ public class AnnotationMetaEntity implements MetaEntity {
     }
 
     protected final void init() {
-        getContext().logMessage(Diagnostic.Kind.OTHER, "Initializing type " + getQualifiedName() + ".");
+        getContext().logMessage(Diagnostic.Kind.OTHER, () -> "Initializing type " + getQualifiedName() + ".");
 
         List<? extends Element> fieldsOfClass = ElementFilter.fieldsIn(element.getEnclosedElements());
 
@@ -0,0 +1,140 @@
+package org.ftibw.mongo.modelgen.cli;
+
+import org.ftibw.mongo.modelgen.MongoModelEntityProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 脱离项目编译，直接从已编译的class文件批量生成元模型和dto
+ * <p>
+ * 先通过{@link ClassFileScanner}在各模块的class目录和jar中找出实体，再以javac的class文件读取器构建与编译时相同的模型
+ * （-proc:only，不编译、不加载类），由{@link MongoModelEntityProcessor}并行渲染，输出与注解处理器完全一致。
+ * 多个模块一次处理，模块之间的父类元模型不再重复解析
+ * <pre>
+ * java -cp mongo-modelgen.jar org.ftibw.mongo.modelgen.cli.BulkGenerator \
+ *     --classes module-a/target/classes --classes module-b/target/classes \
+ *     --classpath 依赖的jar（spring data等） \
+ *     --output target/generated-sources/modelgen [--resources target/classes] [-Aparallelism=8 ...]
+ * </pre>
+ * 在maven中可以通过exec-maven-plugin的java目标调用
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 18:20
+ */
+public final class BulkGenerator {
+    private final List<File> classes = new ArrayList<>();
+    private final List<File> classpath = new ArrayList<>();
+    private final List<String> processorOptions = new ArrayList<>();
+    private File output;
+    private File resources;
+
+    public static void main(String[] args) throws IOException {
+        BulkGenerator generator;
+        try {
+            generator = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BulkGenerator --classes <dir|jar> [--classes ...] [--classpath <path>]"
+                    + " --output <dir> [--resources <dir>] [-Akey=value ...]");
+            System.exit(2);
+            return;
+        }
+        System.exit(generator.generate() ? 0 : 1);
+    }
+
+    static BulkGenerator parse(String[] args) {
+        BulkGenerator generator = new BulkGenerator();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("-A")) {
+                generator.processorOptions.add(arg);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--classes":
+                    generator.classes.add(new File(value));
+                    break;
+                case "--classpath":
+                    for (String path : value.split(File.pathSeparator)) {
+                        if (!path.isEmpty()) {
+                            generator.classpath.add(new File(path));
+                        }
+                    }
+                    break;
+                case "--output":
+                    generator.output = new File(value);
+                    break;
+                case "--resources":
+                    generator.resources = new File(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (generator.classes.isEmpty() || generator.output == null) {
+            throw new IllegalArgumentException("--classes and --output are required");
+        }
+        return generator;
+    }
+
+    /**
+     * @return 是否生成成功，错误由javac输出到标准错误
+     */
+    public boolean generate() throws IOException {
+        Set<String> classNames = new ClassFileScanner().scan(classes);
+        if (classNames.isEmpty()) {
+            System.err.println("No entities found in " + classes);
+            return true;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system java compiler, a JDK is required");
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<File> path = new ArrayList<>(classes);
+            path.addAll(classpath);
+            // the annotations of the entities (Specs, MappedSuperclass...) are part of the generator itself
+            path.add(getGeneratorLocation());
+            fileManager.setLocation(StandardLocation.CLASS_PATH, path);
+
+            List<String> options = new ArrayList<>();
+            options.add("-proc:only");
+            // written directly instead of through the Filer, which compares every new file with all input classes
+            // and would parse the generated sources in another round
+            options.add("-A" + MongoModelEntityProcessor.OUTPUT_DIRECTORY + "=" + output.getAbsolutePath());
+            if (resources != null) {
+                options.add("-A" + MongoModelEntityProcessor.RESOURCE_OUTPUT_DIRECTORY + "=" + resources.getAbsolutePath());
+            }
+            options.addAll(processorOptions);
+
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null, fileManager, null, options, classNames, null
+            );
+            task.setProcessors(Collections.singletonList(new MongoModelEntityProcessor()));
+            return task.call();
+        }
+    }
+
+    private static File getGeneratorLocation() {
+        try {
+            return new File(BulkGenerator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unable to locate the generator classes", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.ftibw.mongo.modelgen.cli;
+
+import org.ftibw.mongo.modelgen.util.Constants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * 在class目录和jar中查找引用了{@code @Document}、{@code @MappedSuperclass}的类
+ * <p>
+ * 只解析class文件的常量池，不加载类；嵌套类返回其顶层类，顶层类作为根元素时javac会一并处理嵌套类。
+ * 常量池引用了注解不代表类型上一定有该注解，多出的类由注解处理器过滤
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 18:10
+ */
+final class ClassFileScanner {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Set<String> descriptors = new HashSet<>();
+
+    ClassFileScanner() {
+        descriptors.add(toDescriptor(Constants.ENTITY));
+        descriptors.add(toDescriptor(Constants.MAPPED_SUPERCLASS));
+    }
+
+    /**
+     * @param inputs class目录或jar
+     * @return 顶层类的全限定名，按名称排序
+     */
+    Set<String> scan(List<File> inputs) throws IOException {
+        Set<String> classNames = new TreeSet<>();
+        for (File input : inputs) {
+            if (input.isDirectory()) {
+                scanDirectory(input.toPath(), classNames);
+            } else if (input.isFile()) {
+                scanJar(input, classNames);
+            } else {
+                throw new IOException("No such class directory or jar: " + input);
+            }
+        }
+        return classNames;
+    }
+
+    private void scanDirectory(Path root, Set<String> classNames) throws IOException {
+        List<Path> classFiles = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(path -> isClassFile(path.toString())).forEach(classFiles::add);
+        }
+        for (Path classFile : classFiles) {
+            if (references(Files.readAllBytes(classFile))) {
+                classNames.add(toClassName(root.relativize(classFile).toString().replace(File.separatorChar, '/')));
+            }
+        }
+    }
+
+    private void scanJar(File jar, Set<String> classNames) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !isClassFile(entry.getName()) || entry.getName().startsWith("META-INF/")) {
+                    continue;
+                }
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    if (references(readAllBytes(in))) {
+                        classNames.add(toClassName(entry.getName()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 常量池中是否有注解的类型描述符
+     */
+    private boolean references(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        // minor and major version
+        in.skipBytes(4);
+        int count = in.readUnsignedShort();
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    // CONSTANT_Utf8 in modified UTF-8, as read by DataInput
+                    if (descriptors.contains(in.readUTF())) {
+                        return true;
+                    }
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    // long and double take two entries
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    /**
+     * com/acme/Outer$Inner.class -> com.acme.Outer
+     */
+    private static String toClassName(String relativePath) {
+        String binaryName = relativePath.substring(0, relativePath.length() - CLASS_SUFFIX.length()).replace('/', '.');
+        int nested = binaryName.indexOf('$');
+        return nested < 0 ? binaryName : binaryName.substring(0, nested);
+    }
+
+    private static String toDescriptor(String className) {
+        return "L" + className.replace('.', '/') + ";";
+    }
+
+    private static byte[] readAllBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
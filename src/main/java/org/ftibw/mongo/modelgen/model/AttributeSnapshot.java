@@ -0,0 +1,91 @@
+package org.ftibw.mongo.modelgen.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link MetaAttribute}的不可变快照，渲染阶段只读取快照，不再访问javac的Element API（非线程安全）
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 11:10
+ */
+public final class AttributeSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String propertyName;
+    private final String typeDeclaration;
+    private final String metaType;
+    private final String declaredType;
+    private final boolean collection;
+    private final List<String> annotations;
+
+    public AttributeSnapshot(String propertyName, String typeDeclaration, String metaType, String declaredType,
+                             boolean collection, List<String> annotations) {
+        this.propertyName = propertyName;
+        this.typeDeclaration = typeDeclaration;
+        this.metaType = metaType;
+        this.declaredType = declaredType;
+        this.collection = collection;
+        this.annotations = Collections.unmodifiableList(annotations);
+    }
+
+    public static AttributeSnapshot of(MetaAttribute attribute) {
+        return new AttributeSnapshot(
+                attribute.getPropertyName(),
+                attribute.getTypeDeclaration(),
+                attribute.getMetaType(),
+                attribute.getDeclaredType(),
+                attribute instanceof MetaCollection,
+                attribute.getAnnotations()
+        );
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * @see MetaAttribute#getTypeDeclaration()
+     */
+    public String getTypeDeclaration() {
+        return typeDeclaration;
+    }
+
+    /**
+     * @see MetaAttribute#getMetaType()
+     */
+    public String getMetaType() {
+        return metaType;
+    }
+
+    /**
+     * @see MetaAttribute#getDeclaredType()
+     */
+    public String getDeclaredType() {
+        return declaredType;
+    }
+
+    /**
+     * @return 是否集合属性，集合种类见{@link #getMetaType()}
+     */
+    public boolean isCollection() {
+        return collection;
+    }
+
+    /**
+     * @see MetaAttribute#getAnnotations()
+     */
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    public boolean hasAnnotation(String annotation) {
+        return annotations.contains(annotation);
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeSnapshot{propertyName='" + propertyName + "', declaredType='" + declaredType + "'}";
+    }
+}
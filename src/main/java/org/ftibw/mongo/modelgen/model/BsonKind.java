@@ -0,0 +1,411 @@
+package org.ftibw.mongo.modelgen.model;
+
+/**
+ * 生成的Codec中属性值与BSON值的对应关系，与spring data mongodb默认的转换保持一致，
+ * 生成的Codec可以读写MappingMongoConverter写入的文档
+ * <p>
+ * {@link #write}生成以分号结尾的写入语句，{@link #read}生成读取表达式，{@link #fromObject}生成从{@code org.bson.Document}的值转换的表达式，
+ * {@link #fromBsonValue}生成从{@code org.bson.BsonValue}转换的表达式，typeName是已导入的属性（或元素）类型
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 20:10
+ */
+public enum BsonKind {
+    STRING {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeString(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readString()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "(String) " + value;
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asString().getValue()";
+        }
+    },
+    CHAR {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeString(String.valueOf(" + value + "));";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readString().charAt(0)";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((String) " + value + ").charAt(0)";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asString().getValue().charAt(0)";
+        }
+    },
+    INT8 {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeInt32(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "(byte) reader.readInt32()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").byteValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return "(byte) " + value + ".asInt32().getValue()";
+        }
+    },
+    INT16 {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeInt32(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "(short) reader.readInt32()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").shortValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return "(short) " + value + ".asInt32().getValue()";
+        }
+    },
+    INT32 {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeInt32(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readInt32()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").intValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asInt32().getValue()";
+        }
+    },
+    INT64 {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeInt64(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readInt64()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").longValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asInt64().getValue()";
+        }
+    },
+    FLOAT {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeDouble(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "(float) reader.readDouble()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").floatValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return "(float) " + value + ".asDouble().getValue()";
+        }
+    },
+    DOUBLE {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeDouble(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readDouble()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((Number) " + value + ").doubleValue()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asDouble().getValue()";
+        }
+    },
+    BOOLEAN {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeBoolean(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readBoolean()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "(Boolean) " + value;
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asBoolean().getValue()";
+        }
+    },
+    /**
+     * java.util.Date
+     */
+    DATE_TIME {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeDateTime(" + value + ".getTime());";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "new " + typeName + "(reader.readDateTime())";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "(" + typeName + ") " + value;
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return "new " + typeName + "(" + value + ".asDateTime().getValue())";
+        }
+    },
+    /**
+     * java.time.Instant
+     */
+    INSTANT {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeDateTime(" + value + ".toEpochMilli());";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return typeName + ".ofEpochMilli(reader.readDateTime())";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((" + imports.importType("java.util.Date") + ") " + value + ").toInstant()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return typeName + ".ofEpochMilli(" + value + ".asDateTime().getValue())";
+        }
+    },
+    /**
+     * BigDecimal和BigInteger，spring默认以字符串保存
+     */
+    NUMBER_STRING {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeString(" + value + ".toString());";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "new " + typeName + "(reader.readString())";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "new " + typeName + "(" + value + ".toString())";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return "new " + typeName + "(" + value + ".asString().getValue())";
+        }
+
+        @Override
+        public String toQueryValue(ImportContext imports, String typeName) {
+            return "Object::toString";
+        }
+    },
+    OBJECT_ID {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeObjectId(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readObjectId()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "(" + typeName + ") " + value;
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asObjectId().getValue()";
+        }
+    },
+    /**
+     * 字符串类型的id，spring把合法的ObjectId字符串保存为ObjectId
+     */
+    ID_STRING {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            String objectId = imports.importType("org.bson.types.ObjectId");
+            return "if (" + objectId + ".isValid(" + value + ")) writer.writeObjectId(new " + objectId + "(" + value + "));"
+                    + " else writer.writeString(" + value + ");";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.getCurrentBsonType() == " + imports.importType("org.bson.BsonType")
+                    + ".OBJECT_ID ? reader.readObjectId().toHexString() : reader.readString()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return value + ".toString()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".isObjectId() ? " + value + ".asObjectId().getValue().toHexString() : " + value + ".asString().getValue()";
+        }
+
+        @Override
+        public String toQueryValue(ImportContext imports, String typeName) {
+            return imports.importType("org.ftibw.mongo.modelgen.publics.query.Attribute") + "::toObjectId";
+        }
+    },
+    /**
+     * byte[]
+     */
+    BINARY {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeBinaryData(new " + imports.importType("org.bson.BsonBinary") + "(" + value + "));";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return "reader.readBinaryData().getData()";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return "((" + imports.importType("org.bson.types.Binary") + ") " + value + ").getData()";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return value + ".asBinary().getData()";
+        }
+    },
+    /**
+     * 以名称保存
+     */
+    ENUM {
+        @Override
+        public String write(ImportContext imports, String typeName, String value) {
+            return "writer.writeString(" + value + ".name());";
+        }
+
+        @Override
+        public String read(ImportContext imports, String typeName) {
+            return typeName + ".valueOf(reader.readString())";
+        }
+
+        @Override
+        public String fromObject(ImportContext imports, String typeName, String value) {
+            return typeName + ".valueOf((String) " + value + ")";
+        }
+
+        @Override
+        public String fromBsonValue(ImportContext imports, String typeName, String value) {
+            return typeName + ".valueOf(" + value + ".asString().getValue())";
+        }
+
+        @Override
+        public String toQueryValue(ImportContext imports, String typeName) {
+            return "Enum::name";
+        }
+    };
+
+    public abstract String write(ImportContext imports, String typeName, String value);
+
+    public abstract String read(ImportContext imports, String typeName);
+
+    /**
+     * @param value 非null的表达式，类型是{@code org.bson.Document}中对应的java类型（如Integer、Date、ObjectId）
+     * @return 转换为属性（或元素）类型的表达式
+     */
+    public abstract String fromObject(ImportContext imports, String typeName, String value);
+
+    /**
+     * @param value 非null、非BSON null的{@code org.bson.BsonValue}表达式
+     * @return 转换为属性（或元素）类型的表达式
+     */
+    public abstract String fromBsonValue(ImportContext imports, String typeName, String value);
+
+    /**
+     * 驱动默认的编码与spring保存的形式不一致时，元模型中的类型化属性需要在构造条件时转换值
+     *
+     * @return 属性（或元素）值到保存的值的{@code java.util.function.Function}表达式，不需要转换时为null
+     */
+    public String toQueryValue(ImportContext imports, String typeName) {
+        return null;
+    }
+}
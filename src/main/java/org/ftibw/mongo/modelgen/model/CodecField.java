@@ -0,0 +1,132 @@
+package org.ftibw.mongo.modelgen.model;
+
+import org.ftibw.mongo.modelgen.util.StringUtil;
+
+import java.io.Serializable;
+
+/**
+ * 生成的Codec和vo的解码方法读写的一个字段，在javac线程上由实体及其所有父类的持久化字段创建
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 20:10
+ */
+public final class CodecField implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final String propertyName;
+    private final String documentName;
+    private final String type;
+    private final String boxedType;
+    private final BsonKind kind;
+    private final String collectionType;
+    private final boolean map;
+    private final String elementType;
+    private final boolean primitive;
+    private final String getter;
+    private final String setter;
+
+    /**
+     * @param documentName   文档中的字段名，id为_id
+     * @param type           字段的声明类型
+     * @param boxedType      基本类型对应的包装类型，其余类型与type相同
+     * @param kind           单值字段或集合元素的BSON类型，不支持的类型为null
+     * @param collectionType 集合字段读取时创建的集合类型（如java.util.ArrayList），单值字段为null
+     * @param map            是否以字符串为键的Map字段
+     * @param elementType    集合元素（Map的值）类型，单值字段为null
+     * @param primitive      是否基本类型，基本类型不会为null
+     * @param getter         实体中读取字段的方法名，没有可访问的getter时为null
+     * @param setter         实体中写入字段的方法名，没有可访问的setter时为null
+     */
+    public CodecField(String propertyName, String documentName, String type, String boxedType, BsonKind kind,
+                      String collectionType, boolean map, String elementType, boolean primitive,
+                      String getter, String setter) {
+        this.propertyName = propertyName;
+        this.documentName = documentName;
+        this.type = type;
+        this.boxedType = boxedType;
+        this.kind = kind;
+        this.collectionType = collectionType;
+        this.map = map;
+        this.elementType = elementType;
+        this.primitive = primitive;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public String getDocumentName() {
+        return documentName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBoxedType() {
+        return boxedType;
+    }
+
+    public BsonKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return 字段类型是否可以由生成的代码直接读写，不支持的字段只记录名称
+     */
+    public boolean isSupported() {
+        return kind != null;
+    }
+
+    public String getCollectionType() {
+        return collectionType;
+    }
+
+    public String getElementType() {
+        return elementType;
+    }
+
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * @return 是否集合（List、Set等）字段，保存为数组
+     */
+    public boolean isArray() {
+        return collectionType != null && !map;
+    }
+
+    /**
+     * @return 是否以字符串为键的Map字段，保存为内嵌文档
+     */
+    public boolean isMap() {
+        return map;
+    }
+
+    public String getGetter() {
+        return getter;
+    }
+
+    public String getSetter() {
+        return setter;
+    }
+
+    /**
+     * vo的属性是实体字段的包装类型，由lombok生成访问器（包装类型只有get前缀）
+     *
+     * @return vo中对应的属性
+     */
+    public CodecField toVoField() {
+        String capitalized = StringUtil.firstUpperCase(propertyName);
+        return new CodecField(propertyName, documentName, boxedType, boxedType, kind, collectionType, map,
+                elementType, false, "get" + capitalized, "set" + capitalized);
+    }
+
+    @Override
+    public String toString() {
+        return "CodecField{propertyName='" + propertyName + "', kind=" + kind + "}";
+    }
+}
@@ -0,0 +1,120 @@
+package org.ftibw.mongo.modelgen.model;
+
+import org.ftibw.mongo.modelgen.util.DtoProp;
+import org.ftibw.mongo.modelgen.util.DtoSpec;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link MetaEntity}的不可变快照，包含渲染元模型和dto所需的全部信息
+ * <p>
+ * 快照在javac线程上创建，之后可以在任意线程上渲染；快照只包含字符串等纯数据，不引用javac的Element/TypeMirror，
+ * 可以序列化缓存，也可以脱离javac（如直接解析class文件）构建
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 11:10
+ */
+public final class EntitySnapshot implements Serializable {
+    private static final long serialVersionUID = 4L;
+
+    private final String qualifiedName;
+    private final String binaryName;
+    private final String simpleName;
+    private final String packageName;
+    private final String mappedSuperClassName;
+    private final String mappedSuperMetaModelName;
+    private final List<AttributeSnapshot> members;
+    private final List<AttributeSnapshot> superMembers;
+    private final List<DtoSpec> dtoSpecs;
+    private final List<DtoProp> defaultDtoProps;
+    private final List<CodecField> codecFields;
+    private final boolean codec;
+
+    /**
+     * @param binaryName               二进制类名（内部类以$分隔），spring以此作为_class的值
+     * @param mappedSuperClassName     最近的有元模型的父类全限定名，没有时为null
+     * @param mappedSuperMetaModelName 该父类的元模型全限定名，没有时为null
+     * @param superMembers             最近的有元模型的父类成员，用于合并到dto
+     * @param dtoSpecs                 dto规范，没有时为空
+     * @param defaultDtoProps          @MappedSuperclass的默认规范属性，写入元模型索引，没有时为空
+     * @param codecFields              Codec和vo解码方法读写的字段，都不生成时为null
+     * @param codec                    是否生成实体（及其vo）的Codec
+     */
+    public EntitySnapshot(String qualifiedName, String binaryName, String simpleName, String packageName,
+                          String mappedSuperClassName,
+                          String mappedSuperMetaModelName, List<AttributeSnapshot> members,
+                          List<AttributeSnapshot> superMembers, List<DtoSpec> dtoSpecs,
+                          List<DtoProp> defaultDtoProps, List<CodecField> codecFields,
+                          boolean codec) {
+        this.qualifiedName = qualifiedName;
+        this.binaryName = binaryName;
+        this.simpleName = simpleName;
+        this.packageName = packageName;
+        this.mappedSuperClassName = mappedSuperClassName;
+        this.mappedSuperMetaModelName = mappedSuperMetaModelName;
+        this.members = Collections.unmodifiableList(members);
+        this.superMembers = Collections.unmodifiableList(superMembers);
+        this.dtoSpecs = Collections.unmodifiableList(dtoSpecs);
+        this.defaultDtoProps = Collections.unmodifiableList(defaultDtoProps);
+        this.codecFields = codecFields == null ? null : Collections.unmodifiableList(codecFields);
+        this.codec = codec;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getBinaryName() {
+        return binaryName;
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getMappedSuperClassName() {
+        return mappedSuperClassName;
+    }
+
+    public String getMappedSuperMetaModelName() {
+        return mappedSuperMetaModelName;
+    }
+
+    public List<AttributeSnapshot> getMembers() {
+        return members;
+    }
+
+    public List<AttributeSnapshot> getSuperMembers() {
+        return superMembers;
+    }
+
+    public List<DtoSpec> getDtoSpecs() {
+        return dtoSpecs;
+    }
+
+    public List<DtoProp> getDefaultDtoProps() {
+        return defaultDtoProps;
+    }
+
+    /**
+     * @return Codec和vo解码方法读写的字段，都不生成时为null
+     */
+    public List<CodecField> getCodecFields() {
+        return codecFields;
+    }
+
+    public boolean isCodec() {
+        return codec;
+    }
+
+    @Override
+    public String toString() {
+        return "EntitySnapshot{qualifiedName='" + qualifiedName + "', members=" + members + "}";
+    }
+}
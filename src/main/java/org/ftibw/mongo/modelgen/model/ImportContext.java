@@ -6,7 +6,6 @@
  */
 package org.ftibw.mongo.modelgen.model;
 
-import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -38,9 +37,4 @@ public interface ImportContext {
      */
     Set<String> getImports();
 
-    /**
-     * 清除导入
-     */
-    void clearImports(Collection<String> imports);
-
 }
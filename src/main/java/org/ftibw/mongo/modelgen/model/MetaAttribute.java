@@ -6,21 +6,29 @@
  */
 package org.ftibw.mongo.modelgen.model;
 
+import java.util.List;
+
 /**
  * @author Hardy Ferentschik
  */
 public interface MetaAttribute {
 
-    String getAttributeDeclarationString();
-
-    String getAttributeNameDeclarationString();
-
     String getMetaType();
 
     String getPropertyName();
 
     String getTypeDeclaration();
 
+    /**
+     * @return the declared type of the attribute including type arguments, eg {@code java.util.List<java.lang.String>}
+     */
+    String getDeclaredType();
+
     MetaEntity getHostingEntity();
 
+    /**
+     * @return the qualified names of the annotations on the attribute
+     */
+    List<String> getAnnotations();
+
 }
@@ -21,6 +21,12 @@ public interface MetaEntity extends ImportContext {
 
 	List<MetaAttribute> getMembers();
 
+	/**
+	 * @return frozen snapshots of {@link #getMembers()}, built once and shared by all generators, eg also when the
+	 * members are merged into the dtos of subclasses
+	 */
+	List<AttributeSnapshot> getMemberSnapshots();
+
 	@Override
 	String generateImports();
 
@@ -4,12 +4,14 @@ import java.lang.annotation.*;
 
 /**
  * 用于标识是实体父类
+ * <p>
+ * 保留到class文件：增量编译时父类可能只以class文件形式存在，仍需能被识别
  *
  * @author : Ftibw
  * @date : 2021/1/6 11:21
  */
 @Documented
 @Target({ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface MappedSuperclass {
 }
@@ -64,8 +64,14 @@ public class Rule_ {
     public static final String REGEX_FILE_BASE64 = "^data:.*;base64,.*$";
 
     public static String getType(Rule rule) {
-        String[] value = rule.value();
-        return value.length == 0 ? "" : value[0];
+        return getType(rule.value());
+    }
+
+    /**
+     * @param ruleValue {@link Rule#value()}
+     */
+    public static String getType(String[] ruleValue) {
+        return ruleValue.length == 0 ? "" : ruleValue[0];
     }
 
     private static boolean needPrintMessage(String constraint, String msg) {
@@ -97,7 +103,13 @@ public class Rule_ {
 
 
     public static String getConstraintAnnotationDeclareString(String constraintSimpleName, Rule rule) {
-        String[] value = rule.value();
+        return getConstraintAnnotationDeclareString(constraintSimpleName, rule.value());
+    }
+
+    /**
+     * @param value {@link Rule#value()}，生成器在脱离javac的模型中只保存注解值
+     */
+    public static String getConstraintAnnotationDeclareString(String constraintSimpleName, String[] value) {
         if (value.length == 0) {
             return "";
         }
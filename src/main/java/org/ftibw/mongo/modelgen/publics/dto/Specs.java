@@ -10,7 +10,7 @@ import java.lang.annotation.*;
  */
 @Documented
 @Target({ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Specs {
     /**
      * 同一个实体的不同DTO规范，第一个规范作为默认值不生成文件，其他规范生成对应DTO文件
@@ -0,0 +1,119 @@
+package org.ftibw.mongo.modelgen.publics.query;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 元模型中类型化的属性，如{@code User_.AGE.gt(18)}，参数类型在编译时检查
+ * <p>
+ * name是文档中的字段名（已按{@code @Field}、{@code @Id}映射），值在构造条件时按spring data mongodb的规则转换为保存的形式
+ * （枚举保存名称、BigDecimal保存字符串、合法的字符串id保存为ObjectId），不再依赖运行时QueryMapper的属性路径解析和类型推断
+ *
+ * @param <T> 属性声明的类型，基本类型为对应的包装类型
+ * @author : Ftibw
+ * @date : 2026/10/17 23:40
+ */
+public class Attribute<T> {
+
+    private final String name;
+    /**
+     * 属性值 -> 保存的值，{@code null}表示保存的值就是属性值
+     */
+    private final Function<? super T, ?> converter;
+
+    public Attribute(String name) {
+        this(name, null);
+    }
+
+    public Attribute(String name, Function<? super T, ?> converter) {
+        this.name = name;
+        this.converter = converter;
+    }
+
+    /**
+     * @return 文档中的字段名
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Condition eq(T value) {
+        return new Condition(name, convert(value));
+    }
+
+    public Condition ne(T value) {
+        return operator("$ne", convert(value));
+    }
+
+    public Condition gt(T value) {
+        return operator("$gt", convert(value));
+    }
+
+    public Condition gte(T value) {
+        return operator("$gte", convert(value));
+    }
+
+    public Condition lt(T value) {
+        return operator("$lt", convert(value));
+    }
+
+    public Condition lte(T value) {
+        return operator("$lte", convert(value));
+    }
+
+    public Condition in(Collection<? extends T> values) {
+        return operator("$in", convertAll(values));
+    }
+
+    @SafeVarargs
+    public final Condition in(T... values) {
+        return in(Arrays.asList(values));
+    }
+
+    public Condition nin(Collection<? extends T> values) {
+        return operator("$nin", convertAll(values));
+    }
+
+    @SafeVarargs
+    public final Condition nin(T... values) {
+        return nin(Arrays.asList(values));
+    }
+
+    public Condition exists(boolean exists) {
+        return operator("$exists", exists);
+    }
+
+    protected final Object convert(T value) {
+        return value == null || converter == null ? value : converter.apply(value);
+    }
+
+    protected final List<Object> convertAll(Collection<? extends T> values) {
+        List<Object> converted = new ArrayList<>(values.size());
+        for (T value : values) {
+            converted.add(convert(value));
+        }
+        return converted;
+    }
+
+    protected final Condition operator(String operator, Object value) {
+        return new Condition(name, new Document(operator, value));
+    }
+
+    /**
+     * 字符串类型的id，spring把合法的ObjectId字符串保存为ObjectId
+     */
+    public static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,40 @@
+package org.ftibw.mongo.modelgen.publics.query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * 集合属性，按元素类型构造条件，与mongodb数组的查询语义一致：
+ * {@code eq}匹配包含该元素的数组，{@code in}匹配包含任一元素的数组
+ *
+ * @param <E> 集合的元素类型
+ * @author : Ftibw
+ * @date : 2026/10/17 23:40
+ */
+public class CollectionAttribute<E> extends Attribute<E> {
+
+    public CollectionAttribute(String name) {
+        super(name);
+    }
+
+    public CollectionAttribute(String name, Function<? super E, ?> converter) {
+        super(name, converter);
+    }
+
+    /**
+     * 包含所有元素
+     */
+    public Condition all(Collection<? extends E> values) {
+        return operator("$all", convertAll(values));
+    }
+
+    @SafeVarargs
+    public final Condition all(E... values) {
+        return all(Arrays.asList(values));
+    }
+
+    public Condition size(int size) {
+        return operator("$size", size);
+    }
+}
@@ -0,0 +1,54 @@
+package org.ftibw.mongo.modelgen.publics.query;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+
+/**
+ * 一个字段上的查询条件，由{@link Attribute}构造
+ * <p>
+ * 既是驱动的{@link Bson}过滤器，也可以通过{@code Query#addCriteria}加入spring的查询，
+ * 字段名和值在构造时就已经是文档中保存的形式
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 23:40
+ */
+public final class Condition implements Bson, CriteriaDefinition {
+
+    private final String key;
+    /**
+     * 转换后的值，或{@code {$operator: value}}形式的操作符文档
+     */
+    private final Object value;
+
+    Condition(String key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public Document toDocument() {
+        return new Document(key, value);
+    }
+
+    @Override
+    public <TDocument> BsonDocument toBsonDocument(Class<TDocument> documentClass, CodecRegistry codecRegistry) {
+        return toDocument().toBsonDocument(documentClass, codecRegistry);
+    }
+
+    @Override
+    public Document getCriteriaObject() {
+        return toDocument();
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return "Condition{" + key + "=" + value + "}";
+    }
+}
@@ -0,0 +1,194 @@
+package org.ftibw.mongo.modelgen.template;
+
+import org.ftibw.mongo.modelgen.model.ImportContext;
+
+import java.util.List;
+
+/**
+ * 编译后的代码模板：模板文本只在处理器启动时解析一次，得到由文本、取值、导入和区块节点组成的渲染计划，
+ * 渲染时按节点顺序直接追加到StringBuilder，不反射、不再解析模板
+ * <p>
+ * 语法（mustache的子集，不做HTML转义）：
+ * <ul>
+ * <li>{@code {{name}}} 输出变量，{@link TypeName}类型的变量先导入再输出可用的类名，变量不存在时输出空串</li>
+ * <li>{@code {{@java.util.List}}} 导入类型并输出可用的类名</li>
+ * <li>{@code {{#name}}...{{/name}}} 区块：变量为true、非空字符串时渲染一次，为列表时对每个元素渲染一次，
+ * 元素中找不到的变量继续在外层查找</li>
+ * <li>{@code {{^name}}...{{/name}}} 反向区块：变量为false、null、空字符串或空列表时渲染</li>
+ * <li>{@code {{! 注释}}}</li>
+ * </ul>
+ * 只有区块和注释标签的行整行去掉；连续三个以上的左花括号只有最后两个作为标签开始，如 {@code new String[]{{{#names}}}；
+ * 模板中的换行统一输出为系统换行符
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+public final class Template {
+    static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final String name;
+    private final Node[] nodes;
+
+    Template(String name, List<Node> nodes) {
+        this.name = name;
+        this.nodes = nodes.toArray(new Node[0]);
+    }
+
+    /**
+     * @param name   模板名称，用于错误信息
+     * @param source 模板文本
+     * @throws TemplateException 模板语法错误
+     */
+    public static Template compile(String name, String source) {
+        return new Template(name, TemplateParser.parse(name, source));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 类体中用到的类型要先导入才能确定import语句，所以同一个模板要渲染两遍：
+     * 第一遍out为null，只登记导入；第二遍在import语句之后追加到out
+     *
+     * @param scope   模板变量
+     * @param imports 生成文件的导入上下文
+     * @param out     输出，为null时只登记导入
+     */
+    public void render(TemplateScope scope, ImportContext imports, StringBuilder out) {
+        render(nodes, new Frame(scope, null), imports, out);
+    }
+
+    static void render(Node[] nodes, Frame frame, ImportContext imports, StringBuilder out) {
+        for (Node node : nodes) {
+            node.render(frame, imports, out);
+        }
+    }
+
+    /**
+     * 区块嵌套时的变量查找链
+     */
+    static final class Frame {
+        private final TemplateScope scope;
+        private final Frame parent;
+
+        Frame(TemplateScope scope, Frame parent) {
+            this.scope = scope;
+            this.parent = parent;
+        }
+
+        Object lookup(String name) {
+            for (Frame frame = this; frame != null; frame = frame.parent) {
+                Object value = frame.scope.get(name);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    abstract static class Node {
+        abstract void render(Frame frame, ImportContext imports, StringBuilder out);
+    }
+
+    static final class Text extends Node {
+        private final String text;
+
+        Text(String text) {
+            this.text = text;
+        }
+
+        @Override
+        void render(Frame frame, ImportContext imports, StringBuilder out) {
+            if (out != null) {
+                out.append(text);
+            }
+        }
+    }
+
+    static final class Value extends Node {
+        private final String name;
+
+        Value(String name) {
+            this.name = name;
+        }
+
+        @Override
+        void render(Frame frame, ImportContext imports, StringBuilder out) {
+            Object value = frame.lookup(name);
+            if (value instanceof TypeName) {
+                String typeName = ((TypeName) value).resolve(imports);
+                if (out != null) {
+                    out.append(typeName);
+                }
+            } else if (value != null && out != null) {
+                out.append(value);
+            }
+        }
+    }
+
+    static final class Import extends Node {
+        private final String fqcn;
+
+        Import(String fqcn) {
+            this.fqcn = fqcn;
+        }
+
+        @Override
+        void render(Frame frame, ImportContext imports, StringBuilder out) {
+            String typeName = imports.importType(fqcn);
+            if (out != null) {
+                out.append(typeName);
+            }
+        }
+    }
+
+    static final class Section extends Node {
+        private final String name;
+        private final boolean inverted;
+        private final Node[] children;
+
+        Section(String name, boolean inverted, List<Node> children) {
+            this.name = name;
+            this.inverted = inverted;
+            this.children = children.toArray(new Node[0]);
+        }
+
+        @Override
+        void render(Frame frame, ImportContext imports, StringBuilder out) {
+            Object value = frame.lookup(name);
+            if (inverted) {
+                if (!isTruthy(value)) {
+                    Template.render(children, frame, imports, out);
+                }
+            } else if (value instanceof List) {
+                for (Object item : (List<?>) value) {
+                    Template.render(children, item instanceof TemplateScope
+                            ? new Frame((TemplateScope) item, frame)
+                            : frame, imports, out);
+                }
+            } else if (value instanceof TemplateScope) {
+                Template.render(children, new Frame((TemplateScope) value, frame), imports, out);
+            } else if (isTruthy(value)) {
+                Template.render(children, frame, imports, out);
+            }
+        }
+
+        private static boolean isTruthy(Object value) {
+            if (value == null) {
+                return false;
+            }
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            if (value instanceof List) {
+                return !((List<?>) value).isEmpty();
+            }
+            if (value instanceof String) {
+                return !((String) value).isEmpty();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.ftibw.mongo.modelgen.template;
+
+/**
+ * 模板语法错误
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+public class TemplateException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TemplateException(String template, int line, String message) {
+        super(template + ":" + line + ": " + message);
+    }
+}
@@ -0,0 +1,151 @@
+package org.ftibw.mongo.modelgen.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 把模板文本解析成{@link Template}的节点，语法见{@link Template}
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+final class TemplateParser {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final String source;
+    private final Deque<OpenSection> sections = new ArrayDeque<>();
+    private List<Template.Node> nodes = new ArrayList<>();
+
+    private TemplateParser(String name, String source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    static List<Template.Node> parse(String name, String source) {
+        return new TemplateParser(name, source.replace("\r\n", "\n")).parse();
+    }
+
+    private List<Template.Node> parse() {
+        int length = source.length();
+        int pos = 0;
+        while (pos < length) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                text(pos, length);
+                break;
+            }
+            // {{{ : the first brace belongs to the text
+            while (open + OPEN.length() < length && source.charAt(open + OPEN.length()) == '{') {
+                open++;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw error(open, "Unclosed tag");
+            }
+            String tag = source.substring(open + OPEN.length(), close).trim();
+            if (tag.isEmpty()) {
+                throw error(open, "Empty tag");
+            }
+            int textEnd = open;
+            int next = close + CLOSE.length();
+            char kind = tag.charAt(0);
+            if (kind == '#' || kind == '^' || kind == '/' || kind == '!') {
+                // a line with nothing but a section or comment tag is removed entirely
+                int lineStart = source.lastIndexOf('\n', open - 1) + 1;
+                int lineEnd = source.indexOf('\n', next);
+                if (lineEnd < 0) {
+                    lineEnd = length;
+                }
+                if (lineStart >= pos && isBlank(lineStart, open) && isBlank(next, lineEnd)) {
+                    textEnd = lineStart;
+                    next = lineEnd < length ? lineEnd + 1 : length;
+                }
+            }
+            text(pos, textEnd);
+            tag(kind, tag, open);
+            pos = next;
+        }
+        if (!sections.isEmpty()) {
+            OpenSection section = sections.peek();
+            throw error(section.position, "Unclosed section " + section.name);
+        }
+        return nodes;
+    }
+
+    private void tag(char kind, String tag, int position) {
+        switch (kind) {
+            case '!':
+                break;
+            case '#':
+            case '^':
+                sections.push(new OpenSection(name(tag.substring(1), position), kind == '^', position, nodes));
+                nodes = new ArrayList<>();
+                break;
+            case '/':
+                String sectionName = name(tag.substring(1), position);
+                OpenSection section = sections.poll();
+                if (section == null || !section.name.equals(sectionName)) {
+                    throw error(position, "Unexpected end of section " + sectionName);
+                }
+                section.outer.add(new Template.Section(section.name, section.inverted, nodes));
+                nodes = section.outer;
+                break;
+            case '@':
+                nodes.add(new Template.Import(name(tag.substring(1), position)));
+                break;
+            default:
+                nodes.add(new Template.Value(name(tag, position)));
+        }
+    }
+
+    private String name(String name, int position) {
+        name = name.trim();
+        if (name.isEmpty()) {
+            throw error(position, "Missing name");
+        }
+        return name;
+    }
+
+    private void text(int start, int end) {
+        if (start < end) {
+            nodes.add(new Template.Text(source.substring(start, end).replace("\n", Template.LINE_SEPARATOR)));
+        }
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(source.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TemplateException error(int position, String message) {
+        int line = 1;
+        for (int i = 0; i < position; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new TemplateException(name, line, message);
+    }
+
+    private static final class OpenSection {
+        private final String name;
+        private final boolean inverted;
+        private final int position;
+        private final List<Template.Node> outer;
+
+        OpenSection(String name, boolean inverted, int position, List<Template.Node> outer) {
+            this.name = name;
+            this.inverted = inverted;
+            this.position = position;
+            this.outer = outer;
+        }
+    }
+}
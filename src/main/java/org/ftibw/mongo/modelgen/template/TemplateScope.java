@@ -0,0 +1,28 @@
+package org.ftibw.mongo.modelgen.template;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 模板变量，值可以是字符串、布尔值、{@link TypeName}、嵌套的{@link TemplateScope}或其列表
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+public final class TemplateScope {
+    private final Map<String, Object> values = new HashMap<>();
+
+    /**
+     * @param value 为null时不设置，查找时继续在外层查找
+     */
+    public TemplateScope put(String name, Object value) {
+        if (value != null) {
+            values.put(name, value);
+        }
+        return this;
+    }
+
+    Object get(String name) {
+        return values.get(name);
+    }
+}
@@ -0,0 +1,179 @@
+package org.ftibw.mongo.modelgen.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 元模型、dto、延迟解码的vo和Codec的模板，处理器启动时加载并编译一次
+ * <p>
+ * 内置模板在{@value #DEFAULT_LOCATION}下；处理器路径（或与处理器同一个classpath）上存在
+ * {@value #OVERRIDE_LOCATION}metamodel.tpl、dto.tpl、lazyVo.tpl、codec.tpl、codecProvider.tpl时替换对应的内置模板，
+ * 例如放在项目的src/main/resources下，可以不依赖lombok、生成final字段或自定义访问方法
+ * <p>
+ * 元模型模板的变量：
+ * <pre>
+ * generated, processor, generationDate   生成注解
+ * className, simpleName, entity, superClass
+ * members: name, type
+ * </pre>
+ * dto模板的变量：
+ * <pre>
+ * generated, processor, generationDate   生成注解
+ * className, simpleName, entity, descr, dtoType, dto, vo, qo, equalsAndHashCode
+ * properties: name, capitalizedName, type, descr, hash, last, constraints: annotation
+ * hasExtraProperties, extraProperties: name, type, descr, constraints: annotation
+ * decoder, decoderFields: vo的解码方法读取的属性，变量同Codec模板的fields，另有fromObject（从Document的值转换的表达式）
+ * </pre>
+ * 延迟解码的vo模板的变量：
+ * <pre>
+ * generated, processor, generationDate   生成注解
+ * className, simpleName, entity, vo, fields: 同Codec模板的fields，另有fromBsonValue（从BsonValue转换的表达式）
+ * </pre>
+ * Codec模板的变量（write是以分号结尾的写入语句，read是读取表达式）：
+ * <pre>
+ * generated, processor, generationDate   生成注解
+ * className, simpleName, entity, target, typeKey, typeAlias
+ * fields: name, documentName, local, getter, setter, type, primitive, scalar, array, map, write, read, elementType, collectionType
+ * </pre>
+ * codec provider模板的变量：
+ * <pre>
+ * generated, processor, generationDate   生成注解
+ * className, capacity, groups: index, codecs: target, codec
+ * </pre>
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+public final class Templates {
+    public static final String OVERRIDE_LOCATION = "META-INF/mongo-modelgen/templates/";
+
+    static final String DEFAULT_LOCATION = "org/ftibw/mongo/modelgen/template/";
+    static final String META_MODEL = "metamodel.tpl";
+    static final String DTO = "dto.tpl";
+    static final String LAZY_VO = "lazyVo.tpl";
+    static final String CODEC = "codec.tpl";
+    static final String CODEC_PROVIDER = "codecProvider.tpl";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Template metaModel;
+    private final Template dto;
+    private final Template lazyVo;
+    private final Template codec;
+    private final Template codecProvider;
+    private final String digest;
+
+    private Templates(Template metaModel, Template dto, Template lazyVo, Template codec, Template codecProvider,
+                      String digest) {
+        this.metaModel = metaModel;
+        this.dto = dto;
+        this.lazyVo = lazyVo;
+        this.codec = codec;
+        this.codecProvider = codecProvider;
+        this.digest = digest;
+    }
+
+    /**
+     * @param loader 处理器的类加载器
+     * @throws IOException       模板读取失败
+     * @throws TemplateException 模板语法错误
+     */
+    public static Templates load(ClassLoader loader) throws IOException {
+        MessageDigest digest = newDigest();
+        Template metaModel = load(loader, META_MODEL, digest);
+        Template dto = load(loader, DTO, digest);
+        Template lazyVo = load(loader, LAZY_VO, digest);
+        Template codec = load(loader, CODEC, digest);
+        Template codecProvider = load(loader, CODEC_PROVIDER, digest);
+        return new Templates(metaModel, dto, lazyVo, codec, codecProvider, toHex(digest.digest()));
+    }
+
+    /**
+     * @return 内置模板，不读取覆盖的模板
+     */
+    public static Templates defaults() {
+        try {
+            return load(null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the built-in templates", e);
+        }
+    }
+
+    private static Template load(ClassLoader loader, String name, MessageDigest digest) throws IOException {
+        URL url = loader == null ? null : loader.getResource(OVERRIDE_LOCATION + name);
+        if (url == null) {
+            url = Templates.class.getClassLoader().getResource(DEFAULT_LOCATION + name);
+            if (url == null) {
+                throw new IOException("Missing built-in template " + DEFAULT_LOCATION + name);
+            }
+        }
+        byte[] content = read(url);
+        digest.update(content);
+        return Template.compile(url.toString(), new String(content, StandardCharsets.UTF_8));
+    }
+
+    public Template getMetaModel() {
+        return metaModel;
+    }
+
+    public Template getDto() {
+        return dto;
+    }
+
+    public Template getLazyVo() {
+        return lazyVo;
+    }
+
+    public Template getCodec() {
+        return codec;
+    }
+
+    public Template getCodecProvider() {
+        return codecProvider;
+    }
+
+    /**
+     * @return 模板内容的摘要，模板变化时缓存的生成结果失效
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    private static byte[] read(URL url) throws IOException {
+        // no caching of the connection, otherwise the jar of an overriding template stays locked on windows
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
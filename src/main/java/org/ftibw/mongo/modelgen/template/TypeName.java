@@ -0,0 +1,22 @@
+package org.ftibw.mongo.modelgen.template;
+
+import org.ftibw.mongo.modelgen.model.ImportContext;
+
+/**
+ * 渲染时才导入的类型，模板没有用到的类型不会出现在import语句中
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:10
+ */
+@FunctionalInterface
+public interface TypeName {
+
+    /**
+     * @return 导入后在源码中可用的类名
+     */
+    String resolve(ImportContext imports);
+
+    static TypeName of(String fqcn) {
+        return imports -> imports.importType(fqcn);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Precompiled code templates of the generated meta models, dtos and codecs.
+ */
+package org.ftibw.mongo.modelgen.template;
@@ -0,0 +1,108 @@
+package org.ftibw.mongo.modelgen.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 按全限定类名过滤需要生成的实体，通过 -Aincludes=... -Aexcludes=... 配置，多个模式以逗号分隔
+ * <ul>
+ * <li>{@code *}匹配类名或包名中的一段（不含.），如 com.acme.entity.* 只匹配该包下的类</li>
+ * <li>{@code **}匹配任意多段，如 com.acme.** 匹配com.acme及其子包下的全部类</li>
+ * <li>{@code ?}匹配一个字符（不含.）</li>
+ * </ul>
+ * 其余字符按字面匹配，只能是类名中的字符；未配置includes时包含全部实体，excludes优先于includes
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 18:50
+ */
+public final class ClassNameFilter {
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    private ClassNameFilter(List<Pattern> includes, List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * @param includes 逗号分隔的模式，可以为null
+     * @param excludes 逗号分隔的模式，可以为null
+     * @throws IllegalArgumentException 有模式包含类名中不可能出现的字符
+     */
+    public static ClassNameFilter of(String includes, String excludes) {
+        return new ClassNameFilter(toPatterns(includes), toPatterns(excludes));
+    }
+
+    public boolean isIncluded(String qualifiedName) {
+        return (includes.isEmpty() || matches(includes, qualifiedName)) && !matches(excludes, qualifiedName);
+    }
+
+    public boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    private static boolean matches(List<Pattern> patterns, String qualifiedName) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(qualifiedName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> toPatterns(String globs) {
+        if (StringUtil.isBlank(globs)) {
+            return Collections.emptyList();
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : globs.split(",")) {
+            glob = glob.trim();
+            if (!glob.isEmpty()) {
+                patterns.add(toPattern(glob));
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * 通配符之外的部分按字面匹配
+     *
+     * @throws IllegalArgumentException 模式中有类名中不可能出现的字符
+     */
+    private static Pattern toPattern(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 16);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                if (c != '.' && !Character.isJavaIdentifierPart(c)) {
+                    throw new IllegalArgumentException("Invalid class name pattern " + glob + ", unexpected '" + c
+                            + "' at index " + i);
+                }
+                literal.append(c);
+                continue;
+            }
+            appendLiteral(regex, literal);
+            if (c == '?') {
+                regex.append("[^.]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^.]*");
+            }
+        }
+        appendLiteral(regex, literal);
+        return Pattern.compile(regex.toString());
+    }
+
+    private static void appendLiteral(StringBuilder regex, StringBuilder literal) {
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+}
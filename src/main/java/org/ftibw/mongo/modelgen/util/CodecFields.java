@@ -0,0 +1,329 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.ftibw.mongo.modelgen.Context;
+import org.ftibw.mongo.modelgen.model.BsonKind;
+import org.ftibw.mongo.modelgen.model.CodecField;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按spring data mongodb的映射规则收集实体及其所有父类的持久化字段，作为生成Codec的输入
+ * <ul>
+ * <li>跳过static、transient和{@code @Transient}字段</li>
+ * <li>名为id或有{@code @Id}的字段保存为_id，{@code @Field}指定的名称优先</li>
+ * <li>通过实体及其父类中public的getter/setter读写字段，同名方法有多个时按lombok的命名优先</li>
+ * </ul>
+ * 只要有一个字段的类型没有对应的{@link BsonKind}（内嵌文档、非字符串键的Map等）或没有访问器，就不生成实体的Codec，
+ * 避免读写时丢失数据，此时交给MappingMongoConverter处理；vo只要求打印的属性都支持
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 20:10
+ */
+public final class CodecFields {
+
+    private static final String LOMBOK_DATA = "lombok.Data";
+    private static final String LOMBOK_GETTER = "lombok.Getter";
+    private static final String LOMBOK_SETTER = "lombok.Setter";
+
+    private static final Map<String, BsonKind> KINDS = new HashMap<>();
+    /**
+     * 集合接口 -> 读取时创建的集合类型
+     */
+    private static final Map<String, String> COLLECTION_TYPES = new HashMap<>();
+
+    static {
+        KINDS.put(String.class.getName(), BsonKind.STRING);
+        KINDS.put(Character.class.getName(), BsonKind.CHAR);
+        KINDS.put(Byte.class.getName(), BsonKind.INT8);
+        KINDS.put(Short.class.getName(), BsonKind.INT16);
+        KINDS.put(Integer.class.getName(), BsonKind.INT32);
+        KINDS.put(Long.class.getName(), BsonKind.INT64);
+        KINDS.put(Float.class.getName(), BsonKind.FLOAT);
+        KINDS.put(Double.class.getName(), BsonKind.DOUBLE);
+        KINDS.put(Boolean.class.getName(), BsonKind.BOOLEAN);
+        KINDS.put(java.util.Date.class.getName(), BsonKind.DATE_TIME);
+        KINDS.put(java.time.Instant.class.getName(), BsonKind.INSTANT);
+        KINDS.put(java.math.BigDecimal.class.getName(), BsonKind.NUMBER_STRING);
+        KINDS.put(java.math.BigInteger.class.getName(), BsonKind.NUMBER_STRING);
+        KINDS.put("org.bson.types.ObjectId", BsonKind.OBJECT_ID);
+
+        COLLECTION_TYPES.put(java.util.Collection.class.getName(), java.util.ArrayList.class.getName());
+        COLLECTION_TYPES.put(java.util.List.class.getName(), java.util.ArrayList.class.getName());
+        COLLECTION_TYPES.put(java.util.Set.class.getName(), java.util.LinkedHashSet.class.getName());
+        COLLECTION_TYPES.put(java.util.SortedSet.class.getName(), java.util.TreeSet.class.getName());
+        COLLECTION_TYPES.put(java.util.Map.class.getName(), java.util.LinkedHashMap.class.getName());
+        COLLECTION_TYPES.put(java.util.SortedMap.class.getName(), java.util.TreeMap.class.getName());
+    }
+
+    private CodecFields() {
+    }
+
+    /**
+     * @return 实体及其所有父类的持久化字段，父类的字段在前；不支持的字段{@link CodecField#getKind()}为null
+     */
+    public static List<CodecField> of(TypeElement element, Context context) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = element;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy.add(current);
+            TypeMirror superClass = current.getSuperclass();
+            current = superClass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superClass).asElement()
+                    : null;
+        }
+        Collections.reverse(hierarchy);
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (TypeElement type : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                // the codec is generated into another package
+                if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        Map<String, CodecField> fields = new LinkedHashMap<>();
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)
+                        || field.getModifiers().contains(Modifier.TRANSIENT)
+                        || TypeUtils.containsAnnotation(field, Constants.TRANSIENT)) {
+                    continue;
+                }
+                CodecField codecField = createField(field, methods, context);
+                fields.put(codecField.getDocumentName(), codecField);
+            }
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    /**
+     * 只为非抽象、有无参构造器、所有字段都支持的{@code @Document}实体生成Codec，否则输出不生成的原因
+     *
+     * @param fields 实体的{@link #of 字段}
+     */
+    public static boolean supportsCodec(TypeElement element, List<CodecField> fields, Context context) {
+        if (!TypeUtils.containsAnnotation(element, Constants.ENTITY)
+                || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (!hasDefaultConstructor(element)) {
+            context.logMessage(Diagnostic.Kind.NOTE, "No codec generated for " + element.getQualifiedName()
+                    + ", there is no accessible constructor without parameters");
+            return false;
+        }
+        for (CodecField field : fields) {
+            if (!field.isSupported()) {
+                context.logMessage(Diagnostic.Kind.NOTE, "No codec generated for " + element.getQualifiedName()
+                        + ", the type " + field.getType() + " of " + field.getPropertyName() + " is not supported");
+                return false;
+            }
+            if (field.getGetter() == null || field.getSetter() == null) {
+                context.logMessage(Diagnostic.Kind.NOTE, "No codec generated for " + element.getQualifiedName()
+                        + ", there is no accessible " + (field.getGetter() == null ? "getter" : "setter")
+                        + " of " + field.getPropertyName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasDefaultConstructor(TypeElement element) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(element.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return constructors.isEmpty();
+    }
+
+    private static CodecField createField(VariableElement field, List<ExecutableElement> methods, Context context) {
+        String propertyName = field.getSimpleName().toString();
+        TypeMirror type = field.asType();
+        String documentName = getDocumentName(field, propertyName);
+        String typeName = context.getTypeUtils().erasure(type).toString();
+        String getter = resolveGetter(field, methods, context);
+        String setter = resolveSetter(field, methods, context);
+
+        if (type.getKind().isPrimitive()) {
+            BsonKind kind = getPrimitiveKind(type.getKind());
+            String boxedType = context.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+            return new CodecField(propertyName, documentName, typeName, boxedType, kind, null, false, null, true,
+                    getter, setter);
+        }
+
+        if ("byte[]".equals(type.toString())) {
+            return new CodecField(propertyName, documentName, "byte[]", "byte[]", BsonKind.BINARY, null, false, null,
+                    false, getter, setter);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return unsupported(propertyName, documentName, type, getter, setter);
+        }
+
+        BsonKind kind = getDeclaredKind((DeclaredType) type);
+        if (kind != null) {
+            if (kind == BsonKind.STRING && "_id".equals(documentName)) {
+                kind = BsonKind.ID_STRING;
+            }
+            return new CodecField(propertyName, documentName, typeName, typeName, kind, null, false, null, false,
+                    getter, setter);
+        }
+
+        String collectionType = COLLECTION_TYPES.get(typeName);
+        if (collectionType == null) {
+            return unsupported(propertyName, documentName, type, getter, setter);
+        }
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        boolean map = arguments.size() == 2;
+        if (arguments.isEmpty() || map && !String.class.getName().equals(arguments.get(0).toString())) {
+            return unsupported(propertyName, documentName, type, getter, setter);
+        }
+        TypeMirror elementType = arguments.get(arguments.size() - 1);
+        BsonKind elementKind = elementType.getKind() == TypeKind.DECLARED
+                ? getDeclaredKind((DeclaredType) elementType)
+                : null;
+        if (elementKind == null) {
+            return unsupported(propertyName, documentName, type, getter, setter);
+        }
+        return new CodecField(propertyName, documentName, type.toString(), type.toString(), elementKind,
+                collectionType, map, context.getTypeUtils().erasure(elementType).toString(), false, getter, setter);
+    }
+
+    private static CodecField unsupported(String propertyName, String documentName, TypeMirror type,
+                                          String getter, String setter) {
+        return new CodecField(propertyName, documentName, type.toString(), type.toString(), null, null, false, null,
+                false, getter, setter);
+    }
+
+    /**
+     * @return 返回字段类型的无参public方法，按lombok的命名优先；都没有时如果由lombok生成则按lombok命名，否则为null
+     */
+    private static String resolveGetter(VariableElement field, List<ExecutableElement> methods, Context context) {
+        String propertyName = field.getSimpleName().toString();
+        String capitalized = StringUtil.firstUpperCase(propertyName);
+        List<String> names = new ArrayList<>(3);
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            // lombok: boolean isActive -> isActive(), boolean active -> isActive()
+            names.add(isPrefixed(propertyName) ? propertyName : "is" + capitalized);
+        }
+        names.add("get" + capitalized);
+        for (String name : names) {
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                        && isSameErasure(method.getReturnType(), field.asType(), context)) {
+                    return name;
+                }
+            }
+        }
+        return hasLombokAccessor(field, LOMBOK_GETTER) ? names.get(0) : null;
+    }
+
+    /**
+     * @return 参数为字段类型的单参public方法，按lombok的命名优先；都没有时如果由lombok生成则按lombok命名，否则为null
+     */
+    private static String resolveSetter(VariableElement field, List<ExecutableElement> methods, Context context) {
+        String propertyName = field.getSimpleName().toString();
+        List<String> names = new ArrayList<>(2);
+        if (field.asType().getKind() == TypeKind.BOOLEAN && isPrefixed(propertyName)) {
+            // lombok: boolean isActive -> setActive(boolean)
+            names.add("set" + propertyName.substring(2));
+        }
+        names.add("set" + StringUtil.firstUpperCase(propertyName));
+        for (String name : names) {
+            for (ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1
+                        && isSameErasure(method.getParameters().get(0).asType(), field.asType(), context)) {
+                    return name;
+                }
+            }
+        }
+        return hasLombokAccessor(field, LOMBOK_SETTER) ? names.get(0) : null;
+    }
+
+    private static boolean isPrefixed(String propertyName) {
+        return propertyName.length() > 2 && propertyName.startsWith("is") && Character.isUpperCase(propertyName.charAt(2));
+    }
+
+    private static boolean isSameErasure(TypeMirror type, TypeMirror other, Context context) {
+        return context.getTypeUtils().isSameType(
+                context.getTypeUtils().erasure(type), context.getTypeUtils().erasure(other)
+        );
+    }
+
+    /**
+     * lombok在其它注解处理器之前还是之后修改语法树取决于处理器的顺序，生成的访问器不一定可见，
+     * 字段或声明字段的类上有lombok的注解时认为访问器存在
+     */
+    private static boolean hasLombokAccessor(VariableElement field, String annotation) {
+        return TypeUtils.containsAnnotation(field, annotation)
+                || TypeUtils.containsAnnotation(field.getEnclosingElement(), annotation, LOMBOK_DATA);
+    }
+
+    private static String getDocumentName(VariableElement field, String propertyName) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (TypeUtils.isAnnotationMirrorOfType(mirror, Constants.FIELD)) {
+                Object name = TypeUtils.getAnnotationValue(mirror, "value");
+                if (name == null) {
+                    name = TypeUtils.getAnnotationValue(mirror, "name");
+                }
+                if (name != null && !name.toString().isEmpty()) {
+                    return name.toString();
+                }
+            }
+        }
+        if ("id".equals(propertyName) || TypeUtils.containsAnnotation(field, Constants.ID)) {
+            return "_id";
+        }
+        return propertyName;
+    }
+
+    private static BsonKind getDeclaredKind(DeclaredType type) {
+        TypeElement element = (TypeElement) type.asElement();
+        if (element.getKind() == ElementKind.ENUM) {
+            return BsonKind.ENUM;
+        }
+        return KINDS.get(element.getQualifiedName().toString());
+    }
+
+    private static BsonKind getPrimitiveKind(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return BsonKind.BOOLEAN;
+            case BYTE:
+                return BsonKind.INT8;
+            case SHORT:
+                return BsonKind.INT16;
+            case INT:
+                return BsonKind.INT32;
+            case LONG:
+                return BsonKind.INT64;
+            case CHAR:
+                return BsonKind.CHAR;
+            case FLOAT:
+                return BsonKind.FLOAT;
+            case DOUBLE:
+                return BsonKind.DOUBLE;
+            default:
+                throw new IllegalArgumentException("Not a primitive type " + kind);
+        }
+    }
+}
@@ -19,6 +19,7 @@ public final class Constants {
     public static final String ENTITY = "org.springframework.data.mongodb.core.mapping.Document";
     public static final String ID = "org.springframework.data.annotation.Id";
     public static final String TRANSIENT = "org.springframework.data.annotation.Transient";
+    public static final String FIELD = "org.springframework.data.mongodb.core.mapping.Field";
 
     /**
      * {@link org.ftibw.mongo.modelgen.publics.MappedSuperclass}
@@ -2,18 +2,28 @@ package org.ftibw.mongo.modelgen.util;
 
 import org.ftibw.mongo.modelgen.publics.dto.Rule;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
+ * 只保存注解的值，不引用javac的注解代理，可以序列化或在javac之外构建
+ *
  * @author : Ftibw
  * @date : 2020/1/8 15:12
  */
-public class DtoProp {
+public class DtoProp implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String propName;
     private String descr;
     private String typeDeclare;
     private List<String> typeImports;
-    private Rule[] rules;
+    /**
+     * 每个元素是一个{@link Rule#value()}
+     */
+    private List<String[]> rules = Collections.emptyList();
     /**
      * override EqualsAndHashCode if true
      */
@@ -24,7 +34,7 @@ public class DtoProp {
         this.descr = descr;
     }
 
-    public DtoProp(String propName, String descr, Rule[] rules, boolean hash) {
+    public DtoProp(String propName, String descr, List<String[]> rules, boolean hash) {
         this.propName = propName;
         this.descr = descr;
         this.rules = rules;
@@ -32,7 +42,7 @@ public class DtoProp {
     }
 
     public DtoProp(String propName, String descr, String typeDeclare, List<String> typeImports,
-                   Rule[] rules, boolean hash) {
+                   List<String[]> rules, boolean hash) {
         this.propName = propName;
         this.descr = descr;
         this.typeDeclare = typeDeclare;
@@ -57,10 +67,21 @@ public class DtoProp {
         return typeImports;
     }
 
-    public Rule[] getRules() {
+    public List<String[]> getRules() {
         return rules;
     }
 
+    public static List<String[]> toRuleValues(Rule[] rules) {
+        if (rules.length == 0) {
+            return Collections.emptyList();
+        }
+        List<String[]> values = new ArrayList<>(rules.length);
+        for (Rule rule : rules) {
+            values.add(rule.value());
+        }
+        return values;
+    }
+
     public boolean isHash() {
         return hash;
     }
@@ -10,20 +10,21 @@ import org.ftibw.mongo.modelgen.publics.dto.Type;
 import javax.lang.model.element.Element;
 import javax.lang.model.type.MirroredTypesException;
 import javax.lang.model.type.TypeMirror;
+import java.io.Serializable;
 import java.util.*;
 
 /**
  * @author : Ftibw
  * @date : 2020/1/7 14:32
  */
-public class DtoSpec {
-    public static final Map<String, List<DtoSpec>> DTO_SPECIFICATIONS = new HashMap<>();
+public class DtoSpec implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private String namespace;
     private String descr;
     private Type type;
     private boolean defaultEqualsAndHashCode;
-    private Map<String, DtoProp> propertyMap = new HashMap<>();
+    private Map<String, DtoProp> propertyMap = new LinkedHashMap<>();
     private List<DtoProp> extraProperties;
 
     public DtoSpec(String descr) {
@@ -57,10 +58,6 @@ public class DtoSpec {
         return extraProperties;
     }
 
-    public static List<DtoSpec> getDtoSpecification(String qualifiedName) {
-        return DTO_SPECIFICATIONS.get(qualifiedName);
-    }
-
     public boolean isOverrideEqualsAndHashCode() {
         return !defaultEqualsAndHashCode;
     }
@@ -76,19 +73,22 @@ public class DtoSpec {
         return specs[0];
     }
 
-    private static Map<String, DtoProp> getSuperDefaultDtoProps(Element superElement) {
+    /**
+     * @return {@link MappedSuperclass}的默认规范属性，子类的默认规范先合并这些属性；其他类型返回空
+     */
+    public static Map<String, DtoProp> getDefaultDtoProps(Element element) {
         Map<String, DtoProp> propertyMap = Collections.emptyMap();
 
-        if (superElement.getAnnotation(MappedSuperclass.class) != null) {
+        if (element.getAnnotation(MappedSuperclass.class) != null) {
 
-            Specs specs = superElement.getAnnotation(Specs.class);
+            Specs specs = element.getAnnotation(Specs.class);
             if (specs != null) {
                 Spec defaultSpec = getDefaultSpec(specs);
                 if (defaultSpec == null) {
                     return propertyMap;
                 }
                 Prop[] props = defaultSpec.value();
-                propertyMap = new HashMap<>(props.length);
+                propertyMap = new LinkedHashMap<>(props.length);
 
                 for (Prop prop : props) {
                     String propName;
@@ -110,7 +110,7 @@ public class DtoSpec {
         return propertyMap;
     }
 
-    private static DtoSpec buildDefaultDtoSpec(Spec defaultSpec, Element superElement) {
+    private static DtoSpec buildDefaultDtoSpec(Spec defaultSpec, Map<String, DtoProp> superDefaultProps) {
         if (defaultSpec == null) {
             return new DtoSpec("");
         }
@@ -118,9 +118,7 @@ public class DtoSpec {
 
         Map<String, DtoProp> propertyMap = dtoSpec.propertyMap;
         //先添加父类属性
-        if (superElement != null) {
-            propertyMap.putAll(getSuperDefaultDtoProps(superElement));
-        }
+        propertyMap.putAll(superDefaultProps);
         //再添加当前类属性
         for (Prop prop : defaultSpec.value()) {
             String propName;
@@ -140,18 +138,23 @@ public class DtoSpec {
         return dtoSpec;
     }
 
-    public static void buildDtoSpecifications(MetaEntity entity, Element superElement) {
+    /**
+     * 解析实体上的{@link Specs}，结果由调用方按编译保存（见Context#putDtoSpecifications）
+     *
+     * @param superDefaultProps 最近的有元模型的父类的默认规范属性，见{@link #getDefaultDtoProps}
+     * @return 实体的dto规范，没有{@link Specs}时返回null
+     */
+    public static List<DtoSpec> buildDtoSpecifications(MetaEntity entity, Map<String, DtoProp> superDefaultProps) {
         Specs specs = entity.getTypeElement().getAnnotation(Specs.class);
         if (specs == null) {
-            return;
+            return null;
         }
 
         Spec defaultSpec = getDefaultSpec(specs);
-        DtoSpec defaultDtoSpec = buildDefaultDtoSpec(defaultSpec, superElement);
+        DtoSpec defaultDtoSpec = buildDefaultDtoSpec(defaultSpec, superDefaultProps);
         Map<String, DtoProp> defaultPropertyMap = defaultDtoSpec.propertyMap;
 
         List<DtoSpec> dtoSpecs = new ArrayList<>();
-        DtoSpec.DTO_SPECIFICATIONS.put(entity.getQualifiedName(), dtoSpecs);
 
         Set<String> existQualifiedInfo = new HashSet<>();
         for (Spec spec : specs.value()) {
@@ -201,7 +204,9 @@ public class DtoSpec {
                 boolean overrideEqualsAndHashCode = prop.hash();
                 dtoSpec.defaultEqualsAndHashCode &= !overrideEqualsAndHashCode;
                 //只获取非默认属性的【校验规则】、【是否参与hashCode计算】
-                propertyMap.put(propName, new DtoProp(propName, propDescr, prop.rule(), overrideEqualsAndHashCode));
+                propertyMap.put(propName, new DtoProp(
+                        propName, propDescr, DtoProp.toRuleValues(prop.rule()), overrideEqualsAndHashCode
+                ));
             }
 
             Prop[] extraProps = spec.extra();
@@ -254,7 +259,7 @@ public class DtoSpec {
                         propDescr,
                         typeDeclare,
                         typeImports,
-                        extraProp.rule(),
+                        DtoProp.toRuleValues(extraProp.rule()),
                         overrideEqualsAndHashCode
                 ));
             }
@@ -262,5 +267,6 @@ public class DtoSpec {
                 dtoSpec.extraProperties = extraProperties;
             }
         }
+        return dtoSpecs;
     }
 }
@@ -0,0 +1,134 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.ftibw.mongo.modelgen.Context;
+import org.ftibw.mongo.modelgen.Version;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 实体指纹：覆盖影响生成结果的全部输入
+ * <ul>
+ * <li>处理器版本和生成选项（包括生成模式、是否生成Codec、延迟解码的vo和模板）</li>
+ * <li>实体及所有父类的注解（包含{@code @Specs/@Spec/@Prop/@Rule}的值）</li>
+ * <li>实体及所有父类的字段：修饰符、注解、名称、类型以及类型和所有类型参数的种类（枚举、类...）</li>
+ * <li>实体及所有父类的方法签名：Codec和延迟解码的vo通过访问器读写字段</li>
+ * </ul>
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 10:20
+ */
+public final class EntityFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private EntityFingerprint() {
+    }
+
+    public static String of(TypeElement element, Context context) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append(Version.getVersionString())
+                .append('|').append(context.addGeneratedAnnotation())
+                .append('|').append(context.addGeneratedDate())
+                .append('|').append(context.getGenerateMode())
+                .append('|').append(context.generateCodecs())
+                .append('|').append(context.generateVoDecoders())
+                .append('|').append(context.generateVoProjections())
+                .append('|').append(context.generateLazyVos())
+                .append('|').append(context.generateQueryAttributes())
+                .append('|').append(context.getTemplates().getDigest());
+        if (context.isReproducibleGenerationDate()) {
+            sb.append('|').append(context.getGenerationDate());
+        }
+        sb.append('\n');
+
+        TypeElement current = element;
+        while (current != null) {
+            appendType(current, sb, context);
+            TypeMirror superClass = current.getSuperclass();
+            //superclass of Object is of NoType which returns some other kind
+            current = superClass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superClass).asElement()
+                    : null;
+        }
+        return sha256(sb);
+    }
+
+    private static void appendType(TypeElement type, StringBuilder sb, Context context) {
+        sb.append(type.getQualifiedName());
+        appendAnnotations(type, sb);
+        sb.append('\n');
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            sb.append('\t').append(field.getModifiers());
+            appendAnnotations(field, sb);
+            TypeMirror fieldType = field.asType();
+            sb.append(' ').append(fieldType).append(' ').append(field.getSimpleName());
+            appendTypeKinds(fieldType, sb, context);
+            sb.append('\n');
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            sb.append('\t').append(method.getModifiers());
+            appendAnnotations(method, sb);
+            sb.append(' ').append(method.getReturnType()).append(' ').append(method.getSimpleName()).append('(');
+            for (VariableElement parameter : method.getParameters()) {
+                sb.append(parameter.asType()).append(',');
+            }
+            sb.append(")\n");
+        }
+    }
+
+    /**
+     * 类型本身和各级类型参数、数组元素的种类，例如{@code List<X>}中X从类变为枚举
+     */
+    private static void appendTypeKinds(TypeMirror type, StringBuilder sb, Context context) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            appendTypeKinds(((ArrayType) type).getComponentType(), sb, context);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            Element typeElement = context.getTypeUtils().asElement(type);
+            sb.append(' ').append(typeElement.getKind());
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                appendTypeKinds(argument, sb, context);
+            }
+        } else if (type.getKind() == TypeKind.WILDCARD) {
+            WildcardType wildcard = (WildcardType) type;
+            TypeMirror bound = wildcard.getExtendsBound() != null ? wildcard.getExtendsBound() : wildcard.getSuperBound();
+            if (bound != null) {
+                appendTypeKinds(bound, sb, context);
+            }
+        }
+    }
+
+    private static void appendAnnotations(Element element, StringBuilder sb) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            sb.append(' ').append(mirror);
+        }
+    }
+
+    private static String sha256(CharSequence input) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(input.toString().getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,118 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.ftibw.mongo.modelgen.GeneratedFile;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 持久化的生成缓存：实体指纹（见{@link EntityFingerprint}）未变化时直接复用上次生成的源码
+ * <p>
+ * 缓存文件通过 -AgenerationCache=文件路径 指定（建议放在构建目录下），未指定时不启用
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 10:20
+ */
+public class GenerationCache implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private transient boolean modified;
+    /**
+     * 本次编译读取或写入过的实体，其余的实体已删除或不再生成
+     */
+    private transient Set<String> seen;
+
+    /**
+     * @param qualifiedName 实体全限定名
+     * @param fingerprint   实体当前指纹
+     * @return 指纹一致时返回缓存的源码，否则返回null
+     */
+    public List<GeneratedFile> get(String qualifiedName, String fingerprint) {
+        getSeen().add(qualifiedName);
+        Entry entry = entries.get(qualifiedName);
+        if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+            return null;
+        }
+        return entry.files;
+    }
+
+    public void put(String qualifiedName, String fingerprint, List<GeneratedFile> files) {
+        getSeen().add(qualifiedName);
+        entries.put(qualifiedName, new Entry(fingerprint, files));
+        modified = true;
+    }
+
+    /**
+     * 移除本次编译没有用到、且已经删除的实体，避免已删除实体的源码一直留在缓存中；
+     * 增量编译只处理变化的实体，其余没有用到的实体仍然存在，要保留下来供之后的全量编译使用
+     *
+     * @param removed 判断没有用到的实体是否已删除
+     * @return 移除的实体数量
+     */
+    public int prune(Predicate<String> removed) {
+        Set<String> seen = getSeen();
+        int size = entries.size();
+        if (entries.keySet().removeIf(qualifiedName -> !seen.contains(qualifiedName) && removed.test(qualifiedName))) {
+            modified = true;
+        }
+        return size - entries.size();
+    }
+
+    private Set<String> getSeen() {
+        // transient fields are not initialized when deserialized
+        if (seen == null) {
+            seen = new HashSet<>();
+        }
+        return seen;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 缓存文件不存在时返回空缓存
+     */
+    public static GenerationCache load(File file) throws IOException, ClassNotFoundException {
+        if (!file.isFile()) {
+            return new GenerationCache();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (GenerationCache) in.readObject();
+        }
+    }
+
+    public void store(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create directory " + dir);
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeObject(this);
+        }
+        modified = false;
+    }
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String fingerprint;
+        private final List<GeneratedFile> files;
+
+        Entry(String fingerprint, List<GeneratedFile> files) {
+            this.fingerprint = fingerprint;
+            this.files = files;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.ftibw.mongo.modelgen.model.AttributeSnapshot;
+import org.ftibw.mongo.modelgen.model.EntitySnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 元模型索引：随元模型一起写入 META-INF/mongo-modelgen/index/实体全限定名，记录元模型类名、成员和默认规范属性
+ * <p>
+ * 其他模块的实体继承该类型时，直接从classpath读取索引，不再从class文件重新解析父类的全部成员；
+ * 每个类型一个索引文件，只有一个originating element，不影响增量编译的isolating处理器类型
+ * <p>
+ * 格式为UTF-8文本，每行一条记录，字段以制表符分隔：
+ * <pre>
+ * mongo-modelgen-index	1
+ * type	实体全限定名
+ * metaModel	元模型全限定名
+ * superClass	最近的有元模型的父类全限定名
+ * member	属性名	类型声明	元类型	声明类型	是否集合	注解（逗号分隔）
+ * defaultProp	属性名	描述
+ * </pre>
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 17:40
+ */
+public final class MetaModelIndex {
+    public static final String LOCATION = "META-INF/mongo-modelgen/index/";
+
+    private static final String HEADER = "mongo-modelgen-index";
+    private static final String VERSION = "1";
+    private static final String NULL = "\\0";
+
+    private final String qualifiedName;
+    private final String metaModelName;
+    private final String superClassName;
+    private final List<AttributeSnapshot> members;
+    private final List<DtoProp> defaultDtoProps;
+
+    public MetaModelIndex(String qualifiedName, String metaModelName, String superClassName,
+                          List<AttributeSnapshot> members, List<DtoProp> defaultDtoProps) {
+        this.qualifiedName = qualifiedName;
+        this.metaModelName = metaModelName;
+        this.superClassName = superClassName;
+        this.members = Collections.unmodifiableList(members);
+        this.defaultDtoProps = Collections.unmodifiableList(defaultDtoProps);
+    }
+
+    public static MetaModelIndex of(EntitySnapshot entity, String metaModelName) {
+        return new MetaModelIndex(
+                entity.getQualifiedName(),
+                metaModelName,
+                entity.getMappedSuperClassName(),
+                entity.getMembers(),
+                entity.getDefaultDtoProps()
+        );
+    }
+
+    /**
+     * @return 类型的索引文件相对于classpath根目录的路径
+     */
+    public static String resourceName(String qualifiedName) {
+        return LOCATION + qualifiedName;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getMetaModelName() {
+        return metaModelName;
+    }
+
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<AttributeSnapshot> getMembers() {
+        return members;
+    }
+
+    public List<DtoProp> getDefaultDtoProps() {
+        return defaultDtoProps;
+    }
+
+    /**
+     * @return 默认规范属性，属性名 -> 属性，与{@link DtoSpec#getDefaultDtoProps}一致
+     */
+    public Map<String, DtoProp> getDefaultDtoPropertyMap() {
+        if (defaultDtoProps.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, DtoProp> propertyMap = new LinkedHashMap<>(defaultDtoProps.size());
+        for (DtoProp prop : defaultDtoProps) {
+            propertyMap.put(prop.getPropName(), prop);
+        }
+        return propertyMap;
+    }
+
+    /**
+     * 换行符固定为\n，索引内容与构建机器无关
+     */
+    public String write() {
+        StringBuilder sb = new StringBuilder(256 + members.size() * 128);
+        line(sb, HEADER, VERSION);
+        line(sb, "type", qualifiedName);
+        line(sb, "metaModel", metaModelName);
+        line(sb, "superClass", superClassName);
+        for (AttributeSnapshot member : members) {
+            line(sb, "member",
+                    member.getPropertyName(),
+                    member.getTypeDeclaration(),
+                    member.getMetaType(),
+                    member.getDeclaredType(),
+                    String.valueOf(member.isCollection()),
+                    String.join(",", member.getAnnotations())
+            );
+        }
+        for (DtoProp prop : defaultDtoProps) {
+            line(sb, "defaultProp", prop.getPropName(), prop.getDescr());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 读取的索引，由不兼容的版本生成时返回null
+     * @throws IOException 索引内容不完整
+     */
+    public static MetaModelIndex read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        String[] header = fields(in.readLine());
+        if (header.length != 2 || !HEADER.equals(header[0]) || !VERSION.equals(header[1])) {
+            return null;
+        }
+        String qualifiedName = null;
+        String metaModelName = null;
+        String superClassName = null;
+        List<AttributeSnapshot> members = new ArrayList<>();
+        List<DtoProp> defaultDtoProps = new ArrayList<>();
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = fields(line);
+            switch (fields[0]) {
+                case "type":
+                    qualifiedName = field(fields, 1);
+                    break;
+                case "metaModel":
+                    metaModelName = field(fields, 1);
+                    break;
+                case "superClass":
+                    superClassName = field(fields, 1);
+                    break;
+                case "member":
+                    String annotations = field(fields, 6);
+                    members.add(new AttributeSnapshot(
+                            field(fields, 1),
+                            field(fields, 2),
+                            field(fields, 3),
+                            field(fields, 4),
+                            Boolean.parseBoolean(field(fields, 5)),
+                            StringUtil.isBlank(annotations)
+                                    ? Collections.emptyList()
+                                    : Arrays.asList(annotations.split(","))
+                    ));
+                    break;
+                case "defaultProp":
+                    defaultDtoProps.add(new DtoProp(field(fields, 1), field(fields, 2)));
+                    break;
+                default:
+                    // records of later minor versions are ignored
+                    break;
+            }
+        }
+        if (qualifiedName == null || metaModelName == null) {
+            throw new IOException("Incomplete meta model index");
+        }
+        return new MetaModelIndex(qualifiedName, metaModelName, superClassName, members, defaultDtoProps);
+    }
+
+    private static void line(StringBuilder sb, String... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append('\t');
+            }
+            escape(sb, fields[i]);
+        }
+        sb.append('\n');
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append(NULL);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    private static String[] fields(String line) throws IOException {
+        if (line == null) {
+            throw new IOException("Empty meta model index");
+        }
+        return line.split("\t", -1);
+    }
+
+    private static String field(String[] fields, int index) throws IOException {
+        if (index >= fields.length) {
+            throw new IOException("Missing field " + index + " in meta model index record " + fields[0]);
+        }
+        return unescape(fields[index]);
+    }
+
+    private static String unescape(String value) {
+        if (NULL.equals(value)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package org.ftibw.mongo.modelgen.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 解析后的类型引用：把 {@code java.util.Map<java.lang.String,java.util.List<com.acme.Item>>[]} 这样的类型声明
+ * 拆成类型名和类型名之间的文本（尖括号、逗号、数组、通配符等），导入时逐个导入其中的每个类型名
+ * <p>
+ * 不可变，可以在线程之间共享，由{@link TypeReferences}缓存
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:40
+ */
+public final class TypeReference {
+
+    private final String[] names;
+    /**
+     * texts[i]在names[i]之前，最后一个在所有类型名之后，长度比names多1
+     */
+    private final String[] texts;
+
+    private TypeReference(String[] names, String[] texts) {
+        this.names = names;
+        this.texts = texts;
+    }
+
+    public static TypeReference parse(String type) {
+        List<String> names = new ArrayList<>(4);
+        List<String> texts = new ArrayList<>(5);
+        StringBuilder text = new StringBuilder();
+        int length = type.length();
+        int i = 0;
+        while (i < length) {
+            char c = type.charAt(i);
+            if (!Character.isJavaIdentifierStart(c)) {
+                text.append(c);
+                i++;
+                continue;
+            }
+            int start = i++;
+            while (i < length) {
+                c = type.charAt(i);
+                if (Character.isJavaIdentifierPart(c)) {
+                    i++;
+                } else if (c == '.' && i + 1 < length && Character.isJavaIdentifierStart(type.charAt(i + 1))) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            String name = type.substring(start, i);
+            if (isKeyword(name)) {
+                // ? extends com.acme.Item
+                text.append(name);
+            } else {
+                texts.add(text.toString());
+                text.setLength(0);
+                names.add(name);
+            }
+        }
+        texts.add(text.toString());
+        return new TypeReference(names.toArray(new String[0]), texts.toArray(new String[0]));
+    }
+
+    private static boolean isKeyword(String name) {
+        return "extends".equals(name) || "super".equals(name);
+    }
+
+    /**
+     * @return 是否只有一个类型名，没有泛型参数和数组
+     */
+    public boolean isSimple() {
+        return names.length == 1 && texts[0].isEmpty() && texts[1].isEmpty();
+    }
+
+    /**
+     * @return 类型名的个数
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * @param index 0到{@link #size()}，index处类型名之前的文本，{@link #size()}处为最后一个类型名之后的文本
+     */
+    public String getText(int index) {
+        return texts[index];
+    }
+}
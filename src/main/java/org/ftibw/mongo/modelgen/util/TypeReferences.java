@@ -0,0 +1,28 @@
+package org.ftibw.mongo.modelgen.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一次处理过程中解析过的类型引用，同一个类型声明在每个属性、每个dto、每次父类合并时只解析一次；
+ * 渲染在多个线程上进行，所以是线程安全的
+ *
+ * @author : Ftibw
+ * @date : 2026/10/17 19:40
+ */
+public final class TypeReferences {
+
+    private final Map<String, TypeReference> references = new ConcurrentHashMap<>();
+
+    public TypeReference get(String type) {
+        TypeReference reference = references.get(type);
+        if (reference == null) {
+            reference = TypeReference.parse(type);
+            TypeReference existing = references.putIfAbsent(type, reference);
+            if (existing != null) {
+                reference = existing;
+            }
+        }
+        return reference;
+    }
+}
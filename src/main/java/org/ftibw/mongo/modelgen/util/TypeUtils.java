@@ -106,13 +106,14 @@ public final class TypeUtils {
         assert element != null;
         assert annotations != null;
 
-        List<String> annotationClassNames = new ArrayList<String>();
-        Collections.addAll(annotationClassNames, annotations);
-
         List<? extends AnnotationMirror> annotationMirrors = element.getAnnotationMirrors();
         for (AnnotationMirror mirror : annotationMirrors) {
-            if (annotationClassNames.contains(mirror.getAnnotationType().toString())) {
-                return true;
+            // compare the Name directly, avoids creating a String per annotation
+            Name annotationClassName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName();
+            for (String annotation : annotations) {
+                if (annotationClassName.contentEquals(annotation)) {
+                    return true;
+                }
             }
         }
         return false;
@@ -0,0 +1,113 @@
+{{! mongo-modelgen codec template, the package and import statements are written before it }}
+{{#generated}}
+@{{@javax.annotation.Generated}}(value = "{{processor}}"{{#generationDate}}, date = "{{generationDate}}"{{/generationDate}})
+{{/generated}}
+public class {{className}} implements {{@org.bson.codecs.Codec}}<{{target}}> {
+
+	@Override
+	public Class<{{target}}> getEncoderClass() {
+		return {{target}}.class;
+	}
+
+	@Override
+	public void encode({{@org.bson.BsonWriter}} writer, {{target}} value, {{@org.bson.codecs.EncoderContext}} encoderContext) {
+		writer.writeStartDocument();
+{{#typeKey}}
+		writer.writeString("{{typeKey}}", "{{typeAlias}}");
+{{/typeKey}}
+{{#fields}}
+{{#primitive}}
+		writer.writeName("{{documentName}}");
+		{{write}}
+{{/primitive}}
+{{^primitive}}
+		{{type}} {{local}} = value.{{getter}}();
+		if ({{local}} != null) {
+			writer.writeName("{{documentName}}");
+{{#scalar}}
+			{{write}}
+{{/scalar}}
+{{#array}}
+			writer.writeStartArray();
+			for ({{elementType}} element : {{local}}) {
+				if (element == null) {
+					writer.writeNull();
+				} else {
+					{{write}}
+				}
+			}
+			writer.writeEndArray();
+{{/array}}
+{{#map}}
+			writer.writeStartDocument();
+			for ({{@java.util.Map}}.Entry<String, {{elementType}}> entry : {{local}}.entrySet()) {
+				writer.writeName(entry.getKey());
+				if (entry.getValue() == null) {
+					writer.writeNull();
+				} else {
+					{{write}}
+				}
+			}
+			writer.writeEndDocument();
+{{/map}}
+		}
+{{/primitive}}
+{{/fields}}
+		writer.writeEndDocument();
+	}
+
+	@Override
+	public {{target}} decode({{@org.bson.BsonReader}} reader, {{@org.bson.codecs.DecoderContext}} decoderContext) {
+		{{target}} value = new {{target}}();
+		reader.readStartDocument();
+		while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+			switch (reader.readName()) {
+{{#fields}}
+				case "{{documentName}}":
+					if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+						reader.readNull();
+						break;
+					}
+{{#scalar}}
+					value.{{setter}}({{read}});
+{{/scalar}}
+{{#array}}
+					{{type}} {{local}} = new {{collectionType}}<>();
+					reader.readStartArray();
+					while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+						if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+							reader.readNull();
+							{{local}}.add(null);
+						} else {
+							{{local}}.add({{read}});
+						}
+					}
+					reader.readEndArray();
+					value.{{setter}}({{local}});
+{{/array}}
+{{#map}}
+					{{type}} {{local}} = new {{collectionType}}<>();
+					reader.readStartDocument();
+					while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+						String key = reader.readName();
+						if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+							reader.readNull();
+							{{local}}.put(key, null);
+						} else {
+							{{local}}.put(key, {{read}});
+						}
+					}
+					reader.readEndDocument();
+					value.{{setter}}({{local}});
+{{/map}}
+					break;
+{{/fields}}
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+		reader.readEndDocument();
+		return value;
+	}
+}
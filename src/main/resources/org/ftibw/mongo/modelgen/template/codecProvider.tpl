@@ -0,0 +1,28 @@
+{{! mongo-modelgen codec provider template, the package and import statements are written before it }}
+{{#generated}}
+@{{@javax.annotation.Generated}}(value = "{{processor}}"{{#generationDate}}, date = "{{generationDate}}"{{/generationDate}})
+{{/generated}}
+public class {{className}} implements {{@org.bson.codecs.configuration.CodecProvider}} {
+
+	private static final {{@java.util.Map}}<Class<?>, {{@org.bson.codecs.Codec}}<?>> CODECS = new {{@java.util.HashMap}}<>({{capacity}});
+
+	static {
+{{#groups}}
+		register{{index}}();
+{{/groups}}
+	}
+
+{{#groups}}
+	private static void register{{index}}() {
+{{#codecs}}
+		CODECS.put({{target}}.class, new {{codec}}());
+{{/codecs}}
+	}
+
+{{/groups}}
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> {{@org.bson.codecs.Codec}}<T> get(Class<T> clazz, {{@org.bson.codecs.configuration.CodecRegistry}} registry) {
+		return ({{@org.bson.codecs.Codec}}<T>) CODECS.get(clazz);
+	}
+}
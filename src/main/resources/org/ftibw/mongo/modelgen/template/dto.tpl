@@ -0,0 +1,170 @@
+{{! mongo-modelgen dto template, the package and import statements are written before it }}
+{{#generated}}
+@{{@javax.annotation.Generated}}(value = "{{processor}}"{{#generationDate}}, date = "{{generationDate}}"{{/generationDate}})
+{{/generated}}
+@{{@io.swagger.annotations.ApiModel}}("{{descr}}")
+{{#equalsAndHashCode}}
+@{{@lombok.EqualsAndHashCode}}(doNotUseGetters = true, onlyExplicitlyIncluded = true)
+{{/equalsAndHashCode}}
+@{{@lombok.Getter}}
+@{{@lombok.Setter}}
+public class {{className}} {
+
+{{#vo}}
+{{#queryProjection}}
+	public static final {{@org.bson.conversions.Bson}} PROJECTION = {{^projectsId}}{{@com.mongodb.client.model.Projections}}.fields({{@com.mongodb.client.model.Projections}}.excludeId(), {{/projectsId}}{{@com.mongodb.client.model.Projections}}.include({{#projection}}"{{documentName}}"{{^last}}, {{/last}}{{/projection}}){{^projectsId}}){{/projectsId}};
+
+	private static final String[] PROJECTS = {{{#properties}}"{{name}}"{{^last}}, {{/last}}{{/properties}}};
+
+{{/queryProjection}}
+{{/vo}}
+{{#properties}}
+{{#hash}}
+	@EqualsAndHashCode.Include
+{{/hash}}
+{{#constraints}}
+	{{annotation}}
+{{/constraints}}
+	@{{@io.swagger.annotations.ApiModelProperty}}("{{descr}}")
+	private {{type}} {{name}};
+{{/properties}}
+{{#hasExtraProperties}}
+	//extra properties
+{{/hasExtraProperties}}
+{{#extraProperties}}
+{{#constraints}}
+	{{annotation}}
+{{/constraints}}
+	@{{@io.swagger.annotations.ApiModelProperty}}("{{descr}}")
+	private {{type}} {{name}};
+{{/extraProperties}}
+
+{{#dto}}
+	public {{entity}} toDO() {
+		{{entity}} one = new {{entity}}();
+{{#properties}}
+		one.set{{capitalizedName}}({{name}});
+{{/properties}}
+		return one;
+	}
+
+{{/dto}}
+{{#vo}}
+	public static {{className}} toVO({{entity}} po) {
+		{{className}} one = new {{className}}();
+{{#properties}}
+		one.{{name}} = po.get{{capitalizedName}}();
+{{/properties}}
+		return one;
+	}
+
+	public static String[] projects() {
+{{#queryProjection}}
+		return PROJECTS.clone();
+{{/queryProjection}}
+{{^queryProjection}}
+		return new String[]{{{#properties}}"{{name}}"{{^last}}, {{/last}}{{/properties}}};
+{{/queryProjection}}
+	}
+
+{{#queryProjection}}
+	public static {{@org.springframework.data.mongodb.core.query.Query}} projects({{@org.springframework.data.mongodb.core.query.Query}} query) {
+		{{@org.springframework.data.mongodb.core.query.Field}} fields = query.fields();
+{{#projection}}
+		fields.include("{{documentName}}");
+{{/projection}}
+{{^projectsId}}
+		fields.exclude("_id");
+{{/projectsId}}
+		return query;
+	}
+
+{{/queryProjection}}
+{{#decoder}}
+	public static {{className}} fromDocument({{@org.bson.Document}} document) {
+		{{className}} one = new {{className}}();
+		Object value;
+{{#decoderFields}}
+		value = document.get("{{documentName}}");
+		if (value != null) {
+{{#scalar}}
+			one.{{name}} = {{fromObject}};
+{{/scalar}}
+{{#array}}
+			{{type}} {{local}} = new {{collectionType}}<>();
+			for (Object element : ({{@java.util.Collection}}<?>) value) {
+				{{local}}.add(element == null ? null : {{fromObject}});
+			}
+			one.{{name}} = {{local}};
+{{/array}}
+{{#map}}
+			{{type}} {{local}} = new {{collectionType}}<>();
+			for ({{@java.util.Map}}.Entry<?, ?> entry : (({{@java.util.Map}}<?, ?>) value).entrySet()) {
+				Object element = entry.getValue();
+				{{local}}.put((String) entry.getKey(), element == null ? null : {{fromObject}});
+			}
+			one.{{name}} = {{local}};
+{{/map}}
+		}
+{{/decoderFields}}
+		return one;
+	}
+
+	public static {{className}} fromBson({{@org.bson.BsonReader}} reader) {
+		{{className}} one = new {{className}}();
+		reader.readStartDocument();
+		while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+			String name = reader.readName();
+			if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+				reader.readNull();
+				continue;
+			}
+			switch (name) {
+{{#decoderFields}}
+				case "{{documentName}}":
+{{#scalar}}
+					one.{{name}} = {{read}};
+{{/scalar}}
+{{#array}}
+					{{type}} {{local}} = new {{collectionType}}<>();
+					reader.readStartArray();
+					while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+						if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+							reader.readNull();
+							{{local}}.add(null);
+						} else {
+							{{local}}.add({{read}});
+						}
+					}
+					reader.readEndArray();
+					one.{{name}} = {{local}};
+{{/array}}
+{{#map}}
+					{{type}} {{local}} = new {{collectionType}}<>();
+					reader.readStartDocument();
+					while (reader.readBsonType() != {{@org.bson.BsonType}}.END_OF_DOCUMENT) {
+						String key = reader.readName();
+						if (reader.getCurrentBsonType() == {{@org.bson.BsonType}}.NULL) {
+							reader.readNull();
+							{{local}}.put(key, null);
+						} else {
+							{{local}}.put(key, {{read}});
+						}
+					}
+					reader.readEndDocument();
+					one.{{name}} = {{local}};
+{{/map}}
+					break;
+{{/decoderFields}}
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+		reader.readEndDocument();
+		return one;
+	}
+
+{{/decoder}}
+{{/vo}}
+}
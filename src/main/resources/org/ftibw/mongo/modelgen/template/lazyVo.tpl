@@ -0,0 +1,60 @@
+{{! mongo-modelgen lazy vo template, the package and import statements are written before it }}
+{{#generated}}
+@{{@javax.annotation.Generated}}(value = "{{processor}}"{{#generationDate}}, date = "{{generationDate}}"{{/generationDate}})
+{{/generated}}
+public class {{className}} {
+
+	private final {{@org.bson.RawBsonDocument}} document;
+{{#fields}}
+	private {{type}} {{name}};
+	private boolean {{name}}Decoded;
+{{/fields}}
+
+	public {{className}}({{@org.bson.RawBsonDocument}} document) {
+		this.document = document;
+	}
+
+	public static String[] projects() {
+		return {{vo}}.projects();
+	}
+
+	public {{@org.bson.RawBsonDocument}} getDocument() {
+		return document;
+	}
+
+{{#fields}}
+	public {{type}} {{getter}}() {
+		if (!{{name}}Decoded) {
+			{{@org.bson.BsonValue}} value = document.get("{{documentName}}");
+			if (value != null && !value.isNull()) {
+{{#scalar}}
+				{{name}} = {{fromBsonValue}};
+{{/scalar}}
+{{#array}}
+				{{type}} {{local}} = new {{collectionType}}<>();
+				for ({{@org.bson.BsonValue}} element : value.asArray()) {
+					{{local}}.add(element.isNull() ? null : {{fromBsonValue}});
+				}
+				{{name}} = {{local}};
+{{/array}}
+{{#map}}
+				{{type}} {{local}} = new {{collectionType}}<>();
+				for ({{@java.util.Map}}.Entry<String, {{@org.bson.BsonValue}}> entry : value.asDocument().entrySet()) {
+					{{@org.bson.BsonValue}} element = entry.getValue();
+					{{local}}.put(entry.getKey(), element.isNull() ? null : {{fromBsonValue}});
+				}
+				{{name}} = {{local}};
+{{/map}}
+			}
+			{{name}}Decoded = true;
+		}
+		return {{name}};
+	}
+
+{{/fields}}
+	public {{vo}} toVO() {
+		try ({{@org.bson.BsonReader}} reader = document.asBsonReader()) {
+			return {{vo}}.fromBson(reader);
+		}
+	}
+}
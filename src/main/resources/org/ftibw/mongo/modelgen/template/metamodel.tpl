@@ -0,0 +1,14 @@
+{{! mongo-modelgen meta model template, the package and import statements are written before it }}
+{{#generated}}
+@{{@javax.annotation.Generated}}(value = "{{processor}}"{{#generationDate}}, date = "{{generationDate}}"{{/generationDate}})
+{{/generated}}
+public abstract class {{className}}{{#superClass}} extends {{superClass}}{{/superClass}} {
+
+{{#members}}
+	public static final {{@java.lang.String}} {{name}} = "{{name}}";
+{{/members}}
+{{#attributes}}
+	public static final {{attributeType}}<{{type}}> {{name}} = new {{attributeType}}<>({{arguments}});
+{{/attributes}}
+
+}
@@ -0,0 +1,157 @@
+package org.ftibw.mongo.modelgen;
+
+import org.ftibw.mongo.modelgen.util.GenerationCache;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用javac编译示例实体，检查生成的源码
+ *
+ * @author : Ftibw
+ * @date : 2026/10/18 10:20
+ */
+public class MongoModelEntityProcessorTest {
+    private static final String PACKAGE = "com.acme.entity";
+
+    @Test
+    public void extendsMetaModelOfMappedSuperclass() throws IOException {
+        Compilation compilation = new Compilation();
+        compilation.write("BaseEntity", "@MappedSuperclass\npublic abstract class BaseEntity {\n    private String id;\n}\n");
+        compilation.write("User", "@Document\npublic class User extends BaseEntity {\n    private String name;\n}\n");
+        compilation.compile();
+
+        assertTrue(compilation.readMetaModel("User").contains("extends BaseEntity_"));
+    }
+
+    @Test
+    public void skipsExcludedMappedSuperclass() throws IOException {
+        Compilation compilation = new Compilation();
+        compilation.write("RootEntity", "@MappedSuperclass\npublic abstract class RootEntity {\n    private String id;\n}\n");
+        compilation.write("BaseEntity", "@MappedSuperclass\npublic abstract class BaseEntity extends RootEntity {\n"
+                + "    private java.util.Date createdAt;\n}\n");
+        compilation.write("User", "@Document\npublic class User extends BaseEntity {\n    private String name;\n}\n");
+        compilation.write("Order", "@Document\npublic class Order extends BaseEntity {\n    private long amount;\n}\n");
+        compilation.compile("-A" + MongoModelEntityProcessor.EXCLUDES + "=" + PACKAGE + ".BaseEntity");
+
+        assertFalse(compilation.metaModel("BaseEntity").exists());
+        assertTrue(compilation.readMetaModel("User").contains("extends RootEntity_"));
+        assertTrue(compilation.readMetaModel("Order").contains("extends RootEntity_"));
+    }
+
+    @Test
+    public void skipsMappedSuperclassOutsideIncludes() throws IOException {
+        Compilation compilation = new Compilation();
+        compilation.write("BaseEntity", "@MappedSuperclass\npublic abstract class BaseEntity {\n    private String id;\n}\n");
+        compilation.write("User", "@Document\npublic class User extends BaseEntity {\n    private String name;\n}\n");
+        compilation.compile("-A" + MongoModelEntityProcessor.INCLUDES + "=" + PACKAGE + ".User");
+
+        assertFalse(compilation.metaModel("BaseEntity").exists());
+        assertFalse(compilation.readMetaModel("User").contains("extends"));
+    }
+
+    @Test
+    public void keepsCachedEntitiesOfIncrementalCompilations() throws Exception {
+        Compilation compilation = new Compilation();
+        File user = compilation.write("User", "@Document\npublic class User {\n    private String name;\n}\n");
+        File order = compilation.write("Order", "@Document\npublic class Order {\n    private long amount;\n}\n");
+        File cacheFile = new File(compilation.classes.getParentFile(), "modelgen.cache");
+        String cache = "-A" + MongoModelEntityProcessor.GENERATION_CACHE + "=" + cacheFile.getPath();
+        String classpath = System.getProperty("java.class.path") + File.pathSeparator + compilation.classes.getPath();
+        compilation.compile(cache);
+        assertEquals(2, GenerationCache.load(cacheFile).size());
+
+        // Order is unchanged and only on the class path
+        compilation.compile(Collections.singletonList(user), classpath, cache);
+        assertEquals(2, GenerationCache.load(cacheFile).size());
+
+        assertTrue(order.delete());
+        assertTrue(new File(compilation.classes, PACKAGE.replace('.', '/') + "/Order.class").delete());
+        compilation.compile(Collections.singletonList(user), classpath, cache);
+        assertEquals(1, GenerationCache.load(cacheFile).size());
+    }
+
+    /**
+     * 一次编译：源码、生成的源码和class文件各自在临时目录中
+     */
+    static final class Compilation {
+        final File sources;
+        final File generated;
+        final File classes;
+
+        Compilation() throws IOException {
+            File root = Files.createTempDirectory("modelgen-processor").toFile();
+            sources = new File(root, "src");
+            generated = new File(root, "generated");
+            classes = new File(root, "classes");
+            if (!new File(sources, PACKAGE.replace('.', '/')).mkdirs() || !generated.mkdirs() || !classes.mkdirs()) {
+                throw new IOException("Can not create " + root);
+            }
+        }
+
+        File write(String className, String body) throws IOException {
+            File source = new File(sources, PACKAGE.replace('.', '/') + "/" + className + ".java");
+            String content = "package " + PACKAGE + ";\n\n"
+                    + "import org.ftibw.mongo.modelgen.publics.MappedSuperclass;\n"
+                    + "import org.springframework.data.mongodb.core.mapping.Document;\n\n"
+                    + body;
+            Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            return source;
+        }
+
+        /**
+         * 编译全部源码
+         */
+        void compile(String... options) {
+            List<File> files = new ArrayList<>();
+            File[] all = new File(sources, PACKAGE.replace('.', '/')).listFiles();
+            assertNotNull(all);
+            files.addAll(Arrays.asList(all));
+            compile(files, System.getProperty("java.class.path"), options);
+        }
+
+        /**
+         * @param files     本次编译的源码
+         * @param classpath 编译的类路径
+         */
+        void compile(List<File> files, String classpath, String... options) {
+            List<String> arguments = new ArrayList<>(Arrays.asList(
+                    "-processor", MongoModelEntityProcessor.class.getName(),
+                    "-classpath", classpath,
+                    "-s", generated.getPath(),
+                    "-d", classes.getPath()));
+            arguments.addAll(Arrays.asList(options));
+            for (File file : files) {
+                arguments.add(file.getPath());
+            }
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            assertNotNull("The tests need a JDK", compiler);
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int result = compiler.run(null, null, err, arguments.toArray(new String[0]));
+            assertEquals(new String(err.toByteArray(), StandardCharsets.UTF_8), 0, result);
+        }
+
+        File metaModel(String className) {
+            return new File(generated, PACKAGE.replace(".entity", ".meta").replace('.', '/') + "/" + className + "_.java");
+        }
+
+        String readMetaModel(String className) throws IOException {
+            return new String(Files.readAllBytes(metaModel(className).toPath()), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.ftibw.mongo.modelgen.cli;
+
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * @author : Ftibw
+ * @date : 2026/10/17 23:50
+ */
+public class ClassFileScannerTest {
+
+    @Test
+    public void findsAnnotatedTopLevelClassesInDirectories() throws IOException {
+        File classes = compileSamples();
+        assertEquals(expected(), new ClassFileScanner().scan(Collections.singletonList(classes)));
+    }
+
+    @Test
+    public void findsAnnotatedTopLevelClassesInJars() throws IOException {
+        File classes = compileSamples();
+        File jar = new File(classes.getParentFile(), "samples.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+             Stream<Path> paths = Files.walk(classes.toPath())) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                out.putNextEntry(new JarEntry(classes.toPath().relativize(path).toString().replace(File.separatorChar, '/')));
+                out.write(Files.readAllBytes(path));
+                out.closeEntry();
+            }
+        }
+        assertEquals(expected(), new ClassFileScanner().scan(Collections.singletonList(jar)));
+    }
+
+    @Test
+    public void rejectsMissingInputs() {
+        try {
+            new ClassFileScanner().scan(Collections.singletonList(new File("no/such/classes")));
+            fail("Expected a missing input to be rejected");
+        } catch (IOException e) {
+            assertEquals("No such class directory or jar: " + new File("no/such/classes"), e.getMessage());
+        }
+    }
+
+    private static Set<String> expected() {
+        return new TreeSet<>(Arrays.asList("com.acme.Base", "com.acme.Outer"));
+    }
+
+    /**
+     * Base有注解，Outer只有嵌套类有注解，Plain的long、double常量占两个常量池项
+     */
+    private static File compileSamples() throws IOException {
+        File root = Files.createTempDirectory("modelgen-scanner").toFile();
+        File sources = new File(root, "src/com/acme");
+        File classes = new File(root, "classes");
+        if (!sources.mkdirs() || !classes.mkdirs()) {
+            throw new IOException("Can not create " + root);
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-proc:none", "-classpath", System.getProperty("java.class.path"), "-d", classes.getPath()));
+        arguments.add(write(sources, "Base", "@org.ftibw.mongo.modelgen.publics.MappedSuperclass\n"
+                + "public class Base {\n"
+                + "}\n"));
+        arguments.add(write(sources, "Outer", "public class Outer {\n"
+                + "    @org.ftibw.mongo.modelgen.publics.MappedSuperclass\n"
+                + "    public static class Inner {\n"
+                + "    }\n"
+                + "}\n"));
+        arguments.add(write(sources, "Plain", "public class Plain {\n"
+                + "    long count = 1234567890123L;\n"
+                + "    double ratio = 0.75;\n"
+                + "    String name = \"org.ftibw.mongo.modelgen.publics.MappedSuperclass\";\n"
+                + "}\n"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("The tests need a JDK", compiler);
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+        return classes;
+    }
+
+    private static String write(File directory, String className, String body) throws IOException {
+        File source = new File(directory, className + ".java");
+        Files.write(source.toPath(), ("package com.acme;\n\n" + body).getBytes(StandardCharsets.UTF_8));
+        return source.getPath();
+    }
+}
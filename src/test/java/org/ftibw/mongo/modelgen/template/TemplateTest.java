@@ -0,0 +1,143 @@
+package org.ftibw.mongo.modelgen.template;
+
+import org.ftibw.mongo.modelgen.ImportContextImpl;
+import org.ftibw.mongo.modelgen.model.ImportContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author : Ftibw
+ * @date : 2026/10/17 23:50
+ */
+public class TemplateTest {
+    private static final String NL = Template.LINE_SEPARATOR;
+
+    @Test
+    public void rendersValues() {
+        TemplateScope scope = new TemplateScope().put("name", "age").put("type", "int");
+        assertEquals("int age;", render("{{type}} {{ name }};", scope));
+    }
+
+    @Test
+    public void rendersMissingValueAsEmpty() {
+        assertEquals("[]", render("[{{missing}}]", new TemplateScope()));
+    }
+
+    @Test
+    public void rendersSections() {
+        String source = "{{#flag}}yes{{/flag}}{{^flag}}no{{/flag}}";
+        assertEquals("yes", render(source, new TemplateScope().put("flag", true)));
+        assertEquals("no", render(source, new TemplateScope().put("flag", false)));
+        assertEquals("no", render(source, new TemplateScope()));
+        assertEquals("yes", render(source, new TemplateScope().put("flag", "x")));
+        assertEquals("no", render(source, new TemplateScope().put("flag", "")));
+        assertEquals("no", render(source, new TemplateScope().put("flag", Collections.emptyList())));
+    }
+
+    @Test
+    public void iteratesListsAndLooksUpOuterScopes() {
+        List<TemplateScope> fields = Arrays.asList(
+                new TemplateScope().put("name", "a"),
+                new TemplateScope().put("name", "b").put("prefix", "_"));
+        TemplateScope scope = new TemplateScope().put("fields", fields).put("prefix", "$");
+        assertEquals("$a,_b,", render("{{#fields}}{{prefix}}{{name}},{{/fields}}", scope));
+    }
+
+    @Test
+    public void rendersNestedScope() {
+        TemplateScope scope = new TemplateScope()
+                .put("owner", new TemplateScope().put("name", "inner"))
+                .put("name", "outer");
+        assertEquals("inner/outer", render("{{#owner}}{{name}}{{/owner}}/{{name}}", scope));
+    }
+
+    @Test
+    public void removesStandaloneSectionLines() {
+        String source = "a\n  {{#flag}}\nb\n  {{/flag}}\n{{! comment }}\nc\n";
+        assertEquals("a" + NL + "b" + NL + "c" + NL, render(source, new TemplateScope().put("flag", true)));
+        assertEquals("a" + NL + "c" + NL, render(source, new TemplateScope()));
+    }
+
+    @Test
+    public void keepsSectionTagsSharingALineWithText() {
+        String source = "x {{#flag}}y{{/flag}}\nz";
+        assertEquals("x y" + NL + "z", render(source, new TemplateScope().put("flag", true)));
+    }
+
+    @Test
+    public void treatsLeadingBracesAsText() {
+        List<TemplateScope> names = Arrays.asList(
+                new TemplateScope().put("name", "a"),
+                new TemplateScope().put("name", "b"));
+        String source = "new String[]{{{#names}}\"{{name}}\",{{/names}}}";
+        assertEquals("new String[]{\"a\",\"b\",}", render(source, new TemplateScope().put("names", names)));
+    }
+
+    @Test
+    public void normalizesLineSeparators() {
+        assertEquals("a" + NL + "b", render("a\r\nb", new TemplateScope()));
+    }
+
+    @Test
+    public void importsTypes() {
+        ImportContext imports = new ImportContextImpl("com.acme");
+        TemplateScope scope = new TemplateScope().put("type", TypeName.of("java.util.Map<java.lang.String,com.acme.Item>"));
+        Template template = Template.compile("test", "{{@java.util.List}} {{type}}");
+
+        template.render(scope, imports, null);
+        StringBuilder out = new StringBuilder();
+        template.render(scope, imports, out);
+
+        assertEquals("List Map<String,Item>", out.toString());
+        assertTrue(imports.getImports().contains("java.util.List"));
+        assertTrue(imports.getImports().contains("java.util.Map"));
+    }
+
+    @Test
+    public void rejectsUnclosedSection() {
+        assertSyntaxError("a\n{{#flag}}\nb", "test:2: Unclosed section flag");
+    }
+
+    @Test
+    public void rejectsUnexpectedEndOfSection() {
+        assertSyntaxError("a\n\n{{/flag}}", "test:3: Unexpected end of section flag");
+    }
+
+    @Test
+    public void rejectsMismatchedSections() {
+        assertSyntaxError("{{#a}}{{#b}}\n{{/a}}{{/b}}", "test:2: Unexpected end of section a");
+    }
+
+    @Test
+    public void rejectsUnclosedTag() {
+        assertSyntaxError("a {{name", "test:1: Unclosed tag");
+    }
+
+    @Test
+    public void rejectsEmptyTags() {
+        assertSyntaxError("{{ }}", "test:1: Empty tag");
+        assertSyntaxError("{{#}}{{/}}", "test:1: Missing name");
+    }
+
+    private static String render(String source, TemplateScope scope) {
+        StringBuilder out = new StringBuilder();
+        Template.compile("test", source).render(scope, new ImportContextImpl("com.acme"), out);
+        return out.toString();
+    }
+
+    private static void assertSyntaxError(String source, String message) {
+        try {
+            TemplateParser.parse("test", source);
+            fail("Expected a syntax error in " + source);
+        } catch (TemplateException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
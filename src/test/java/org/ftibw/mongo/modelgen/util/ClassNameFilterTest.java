@@ -0,0 +1,109 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author : Ftibw
+ * @date : 2026/10/17 23:50
+ */
+public class ClassNameFilterTest {
+
+    @Test
+    public void includesEverythingWithoutPatterns() {
+        ClassNameFilter filter = ClassNameFilter.of(null, " ");
+        assertTrue(filter.isEmpty());
+        assertTrue(filter.isIncluded("com.acme.entity.User"));
+    }
+
+    @Test
+    public void matchesLiterally() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.User", null);
+        assertFalse(filter.isEmpty());
+        assertTrue(filter.isIncluded("com.acme.User"));
+        assertFalse(filter.isIncluded("comXacme.User"));
+        assertFalse(filter.isIncluded("com.acme.UserX"));
+    }
+
+    @Test
+    public void matchesDollarLiterally() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.Outer$Inner", null);
+        assertTrue(filter.isIncluded("com.acme.Outer$Inner"));
+        assertFalse(filter.isIncluded("com.acme.Outer"));
+    }
+
+    @Test
+    public void matchesOneSegmentWithStar() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.entity.*", null);
+        assertTrue(filter.isIncluded("com.acme.entity.User"));
+        assertFalse(filter.isIncluded("com.acme.entity.sub.User"));
+        assertFalse(filter.isIncluded("com.acme.User"));
+
+        filter = ClassNameFilter.of("com.acme.*Entity", null);
+        assertTrue(filter.isIncluded("com.acme.UserEntity"));
+        assertTrue(filter.isIncluded("com.acme.Entity"));
+        assertFalse(filter.isIncluded("com.acme.UserEntityX"));
+    }
+
+    @Test
+    public void matchesSubPackagesWithDoubleStar() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.**", null);
+        assertTrue(filter.isIncluded("com.acme.User"));
+        assertTrue(filter.isIncluded("com.acme.entity.sub.User"));
+        assertFalse(filter.isIncluded("com.other.User"));
+
+        filter = ClassNameFilter.of("com.**.entity.*", null);
+        assertTrue(filter.isIncluded("com.acme.entity.User"));
+        assertTrue(filter.isIncluded("com.acme.shop.entity.User"));
+        assertFalse(filter.isIncluded("com.acme.entity.sub.User"));
+    }
+
+    @Test
+    public void matchesOneCharacterWithQuestionMark() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.User?", null);
+        assertTrue(filter.isIncluded("com.acme.User1"));
+        assertFalse(filter.isIncluded("com.acme.User"));
+        assertFalse(filter.isIncluded("com.acme.User12"));
+        assertFalse(ClassNameFilter.of("com.acme?User", null).isIncluded("com.acme.User"));
+    }
+
+    @Test
+    public void matchesAnyOfSeveralPatterns() {
+        ClassNameFilter filter = ClassNameFilter.of(" com.acme.User , com.acme.shop.* ,", null);
+        assertTrue(filter.isIncluded("com.acme.User"));
+        assertTrue(filter.isIncluded("com.acme.shop.Order"));
+        assertFalse(filter.isIncluded("com.acme.Order"));
+    }
+
+    @Test
+    public void prefersExcludes() {
+        ClassNameFilter filter = ClassNameFilter.of("com.acme.**", "com.acme.internal.**,*.*Test");
+        assertTrue(filter.isIncluded("com.acme.User"));
+        assertFalse(filter.isIncluded("com.acme.internal.Audit"));
+        assertTrue(filter.isIncluded("com.acme.shop.OrderTest"));
+
+        filter = ClassNameFilter.of(null, "com.acme.internal.*");
+        assertTrue(filter.isIncluded("com.acme.User"));
+        assertFalse(filter.isIncluded("com.acme.internal.Audit"));
+    }
+
+    @Test
+    public void rejectsInvalidPatterns() {
+        assertInvalid("com.acme.[A-Z]*", "Invalid class name pattern com.acme.[A-Z]*, unexpected '[' at index 9");
+        assertInvalid("com.acme.User+", "Invalid class name pattern com.acme.User+, unexpected '+' at index 13");
+        assertInvalid("com.acme.\\Q", "Invalid class name pattern com.acme.\\Q, unexpected '\\' at index 9");
+    }
+
+    private static void assertInvalid(String pattern, String message) {
+        try {
+            ClassNameFilter.of(pattern, null);
+            fail("Expected " + pattern + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.ftibw.mongo.modelgen.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author : Ftibw
+ * @date : 2026/10/17 23:50
+ */
+public class TypeReferenceTest {
+
+    @Test
+    public void parsesSimpleType() {
+        TypeReference reference = TypeReference.parse("java.lang.String");
+        assertTrue(reference.isSimple());
+        assertParts(reference, "", "java.lang.String", "");
+    }
+
+    @Test
+    public void parsesPrimitiveType() {
+        TypeReference reference = TypeReference.parse("int");
+        assertTrue(reference.isSimple());
+        assertParts(reference, "", "int", "");
+    }
+
+    @Test
+    public void parsesNestedType() {
+        TypeReference reference = TypeReference.parse("com.acme.Outer.Inner");
+        assertTrue(reference.isSimple());
+        assertParts(reference, "", "com.acme.Outer.Inner", "");
+    }
+
+    @Test
+    public void parsesArrays() {
+        TypeReference reference = TypeReference.parse("com.acme.Item[][]");
+        assertFalse(reference.isSimple());
+        assertParts(reference, "", "com.acme.Item", "[][]");
+
+        assertParts(TypeReference.parse("byte[]"), "", "byte", "[]");
+    }
+
+    @Test
+    public void parsesVarargs() {
+        assertParts(TypeReference.parse("java.lang.String..."), "", "java.lang.String", "...");
+    }
+
+    @Test
+    public void parsesGenerics() {
+        TypeReference reference = TypeReference.parse("java.util.Map<java.lang.String,java.util.List<com.acme.Item>>[]");
+        assertFalse(reference.isSimple());
+        assertParts(reference,
+                "", "java.util.Map",
+                "<", "java.lang.String",
+                ",", "java.util.List",
+                "<", "com.acme.Item",
+                ">>[]");
+    }
+
+    @Test
+    public void parsesGenericNestedTypes() {
+        assertParts(TypeReference.parse("java.util.Map.Entry<java.lang.String, com.acme.Outer.Inner>"),
+                "", "java.util.Map.Entry",
+                "<", "java.lang.String",
+                ", ", "com.acme.Outer.Inner",
+                ">");
+    }
+
+    @Test
+    public void keepsWildcardsInText() {
+        assertParts(TypeReference.parse("java.util.List<? extends com.acme.Item>"),
+                "", "java.util.List",
+                "<? extends ", "com.acme.Item",
+                ">");
+        assertParts(TypeReference.parse("java.util.Comparator<? super com.acme.Item>"),
+                "", "java.util.Comparator",
+                "<? super ", "com.acme.Item",
+                ">");
+        assertParts(TypeReference.parse("java.lang.Class<?>"), "", "java.lang.Class", "<?>");
+    }
+
+    @Test
+    public void parsesTypeVariables() {
+        assertParts(TypeReference.parse("java.util.List<T>"), "", "java.util.List", "<", "T", ">");
+    }
+
+    @Test
+    public void cachesReferences() {
+        TypeReferences references = new TypeReferences();
+        assertSame(references.get("java.util.List<T>"), references.get("java.util.List<T>"));
+    }
+
+    /**
+     * @param parts 交替的文本和类型名，以文本开头和结尾
+     */
+    private static void assertParts(TypeReference reference, String... parts) {
+        assertEquals(parts.length / 2, reference.size());
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals(parts[2 * i], reference.getText(i));
+            assertEquals(parts[2 * i + 1], reference.getName(i));
+        }
+        assertEquals(parts[parts.length - 1], reference.getText(reference.size()));
+    }
+}